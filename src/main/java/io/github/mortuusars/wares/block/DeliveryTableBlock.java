@@ -35,6 +35,7 @@ import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.Shapes;
 import net.minecraft.world.phys.shapes.VoxelShape;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.network.NetworkHooks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -147,8 +148,16 @@ public class DeliveryTableBlock extends BaseEntityBlock {
     public void onRemove(BlockState state, Level level, BlockPos pos, BlockState newState, boolean isMoving) {
         if (!state.is(newState.getBlock())) {
             BlockEntity blockentity = level.getBlockEntity(pos);
+            if (blockentity instanceof DeliveryTableBlockEntity deliveryTableBlockEntity)
+                deliveryTableBlockEntity.onRemovedFromLevel();
             if (blockentity instanceof Container container) {
                 Containers.dropContents(level, pos, container);
+                if (blockentity instanceof DeliveryTableBlockEntity deliveryTableBlockEntity) {
+                    IItemHandler agreementQueue = deliveryTableBlockEntity.getAgreementQueue();
+                    for (int i = 0; i < agreementQueue.getSlots(); i++) {
+                        Containers.dropItemStack(level, pos.getX(), pos.getY(), pos.getZ(), agreementQueue.getStackInSlot(i));
+                    }
+                }
                 level.updateNeighbourForOutputSignal(pos, this);
             }
 
@@ -2,11 +2,11 @@ package io.github.mortuusars.wares.block;
 
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.block.entity.PackageBlockEntity;
+import io.github.mortuusars.wares.world.PackageUnpacker;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundSource;
-import net.minecraft.world.Containers;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.BlockPlaceContext;
 import net.minecraft.world.level.BlockGetter;
@@ -74,9 +74,7 @@ public class PackageBlock extends BaseEntityBlock {
         if (!state.is(newState.getBlock())) {
             if (level instanceof ServerLevel serverLevel && level.getBlockEntity(pos) instanceof PackageBlockEntity packageBlockEntity) {
                 List<ItemStack> items = packageBlockEntity.getPackage().getItems(serverLevel, Vec3.atCenterOf(pos));
-                for (ItemStack item : items) {
-                    Containers.dropItemStack(level, pos.getX(), pos.getY(), pos.getZ(), item.copy());
-                }
+                PackageUnpacker.unpackAt(serverLevel, pos, items);
 
                 level.playSound(null, pos.getX() + 0.5f, pos.getY() + 0.5f, pos.getZ() + 0.5f,
                         Wares.SoundEvents.PAPER_TEAR.get(), SoundSource.PLAYERS,
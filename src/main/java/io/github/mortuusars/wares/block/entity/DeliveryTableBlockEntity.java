@@ -3,51 +3,58 @@ package io.github.mortuusars.wares.block.entity;
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.block.DeliveryTableBlock;
 import io.github.mortuusars.wares.config.Config;
+import io.github.mortuusars.wares.config.WaresSettings;
 import io.github.mortuusars.wares.data.agreement.DeliveryAgreement;
 import io.github.mortuusars.wares.data.agreement.AgreementType;
-import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItemsMatcher;
 import io.github.mortuusars.wares.item.DeliveryAgreementItem;
+import io.github.mortuusars.wares.item.PackageItem;
 import io.github.mortuusars.wares.menu.DeliveryTableMenu;
+import io.github.mortuusars.wares.network.Packets;
+import io.github.mortuusars.wares.network.packet.ClientboundDeliveryTableUpdatePacket;
+import io.github.mortuusars.wares.villager.ai.behavior.ReportWorkToTable;
+import io.github.mortuusars.wares.world.DeliveryScheduler;
+import io.github.mortuusars.wares.world.SharedAgreementCounters;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.core.GlobalPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.Connection;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
-import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.WorldlyContainer;
 import net.minecraft.world.entity.ExperienceOrb;
-import net.minecraft.world.entity.ai.memory.MemoryModuleType;
 import net.minecraft.world.entity.npc.Villager;
-import net.minecraft.world.entity.npc.VillagerData;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.inventory.ContainerData;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemHandlerHelper;
 import net.minecraftforge.items.ItemStackHandler;
-import net.minecraftforge.items.wrapper.SidedInvWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.UUID;
 
 @SuppressWarnings({"SameParameterValue", "BooleanMethodIsAlwaysInverted", "unused"})
 public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implements WorldlyContainer {
@@ -63,7 +70,11 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     public static final int[] INPUT_PLUS_OUTPUT_SLOTS = new int[] {2,3,4,5,6,7,8,9,10,11,12,13};
 
     public static final int PACKAGER_WORK_RADIUS = 3;
+    public static final int PACKAGER_XP_RADIUS = 16;
+    public static final int PACKAGER_REPORT_TIMEOUT = ReportWorkToTable.REPORT_INTERVAL * 3;
     public static final int PACKAGER_LAST_WORK_THRESHOLD = 20 * 40; // 40 seconds = 800 ticks
+    public static final int AUTOMATION_INTERVAL = 20; // 1 second
+    public static final int AGREEMENT_QUEUE_SIZE = 4;
 
     public static final int CONTAINER_DATA_SIZE = 3;
     public static final int CONTAINER_DATA_PROGRESS = 0;
@@ -73,18 +84,18 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     protected final ContainerData containerData = new ContainerData() {
         public int get(int id) {
             return switch (id) {
-                case CONTAINER_DATA_PROGRESS -> DeliveryTableBlockEntity.this.progress;
+                case CONTAINER_DATA_PROGRESS -> DeliveryTableBlockEntity.this.getProgress();
                 case CONTAINER_DATA_DURATION -> DeliveryTableBlockEntity.this.getDeliveryTime();
-                case CONTAINER_DATA_CAN_DELIVER_MANUALLY -> Config.MANUAL_DELIVERY_ALLOWED.get() && DeliveryTableBlockEntity.this.canDeliverManually ? 1 : 0;
+                case CONTAINER_DATA_CAN_DELIVER_MANUALLY -> Config.settings().manualDeliveryAllowed() && DeliveryTableBlockEntity.this.canDeliverManually ? 1 : 0;
                 default -> 0;
             };
         }
 
         public void set(int id, int value) {
             if (id == CONTAINER_DATA_PROGRESS)
-                DeliveryTableBlockEntity.this.progress = value;
+                DeliveryTableBlockEntity.this.setProgress(value);
             else if (id == CONTAINER_DATA_CAN_DELIVER_MANUALLY)
-                DeliveryTableBlockEntity.this.canDeliverManually = Config.MANUAL_DELIVERY_ALLOWED.get() && value == 1;
+                DeliveryTableBlockEntity.this.canDeliverManually = Config.settings().manualDeliveryAllowed() && value == 1;
         }
 
         public int getCount() {
@@ -93,33 +104,171 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     };
 
     protected final ItemStackHandler inventory;
-    protected LazyOptional<IItemHandlerModifiable>[] inventoryHandlers;
-    protected int progress = 0;
+    /**
+     * Item handlers exposed to automation: DOWN, UP and sides.
+     */
+    protected LazyOptional<IItemHandler>[] inventoryHandlers;
+    /**
+     * Bit per output slot (index in {@link #OUTPUT_SLOTS}) that is not empty.
+     */
+    protected int filledOutputSlots = 0;
+    /**
+     * Neighbors are notified about inventory changes once per tick, not on every change.
+     */
+    protected boolean neighborsUpdatePending = false;
+    /**
+     * Type of the item in agreement slot. Block state is updated to match it on the next tick.
+     */
+    protected AgreementType agreementType = AgreementType.NONE;
+    protected boolean blockStateUpdatePending = false;
+    /**
+     * Game time at which current delivery has started (adjusted by progress made before). -1 when not delivering.
+     * Progress is derived from it, so it does not need to be updated every tick.
+     */
+    protected long deliveryStartTime = -1L;
+    /**
+     * Progress of a delivery that is not running at the moment: paused, or loaded from save.
+     */
+    protected int pausedProgress = 0;
     protected boolean canDeliverManually = false;
     protected boolean deliveringManually = false;
 
+    /**
+     * Sleeping table skips all checks in serverTick until it is woken up by inventory change, config reload or by the {@link DeliveryScheduler}.
+     * Table falls asleep when its state cannot change by itself (no agreement, no input, no boxes, no space for output)
+     * or while delivery is in progress.
+     */
+    protected boolean sleeping = false;
+    protected long wakeUpTime = Long.MAX_VALUE;
+    /**
+     * Earliest wake up that is pending in the {@link DeliveryScheduler}. Table does not schedule another wake up
+     * if this one is not later than requested - it will reschedule when this one comes, if it's still sleeping.
+     */
+    protected long scheduledWakeUpTime = Long.MAX_VALUE;
+    /**
+     * Config snapshot at the time table fell asleep. Table wakes up if config was reloaded since then.
+     */
+    protected @Nullable WaresSettings sleepSettings = null;
+
+    /**
+     * Packager that has this table as a job site. State of the packager is reported to the table by the packager itself
+     * (see {@link ReportWorkToTable}) - table does not look up villagers or their memories.
+     * Packager is considered absent if it has not reported for {@link #PACKAGER_REPORT_TIMEOUT} ticks.
+     */
+    protected @Nullable UUID packagerId;
+    protected int packagerLevel = 1;
+    protected long packagerLastWorkedAt = -1L;
+    protected long packagerReportTime = -1L;
+    protected @Nullable AABB packagerBoundingBox;
+    /**
+     * Xp earned by the packager from deliveries, that was not yet given to it.
+     * Packager takes it when it reports to the table (see {@link #takePendingPackagerXp}).
+     */
+    protected int pendingPackagerXp = 0;
+
+    /**
+     * Game time at which table was last saved. Used to catch up deliveries missed while the chunk was unloaded.
+     * -1 if there is nothing to catch up.
+     */
+    protected long catchUpFromTime = -1L;
+    /**
+     * When packager is required - catching up waits for the packager to report that it's working at the table
+     * (packager is loaded separately from the table, or may not exist anymore). Catch up is dropped if it does not report until this time.
+     */
+    protected long catchUpDeadline = -1L;
+
+    /**
+     * When 'TablePullsAndPushesItems' is enabled - table does not try to pull or push items more often than {@link #AUTOMATION_INTERVAL}.
+     * Pushing right after a delivery is not limited.
+     */
+    protected long nextAutomationTime = 0L;
+
+    /**
+     * Changes that were not yet sent to clients. Bit per slot.
+     */
+    protected int changedSlotsForClients = 0;
+    protected boolean deliveredChangedForClients = false;
+
+    /**
+     * Agreements that will be placed to agreement slot (first non-empty slot first) when current one is completed or expired.
+     * Queue slots are shown in the menu and are exposed to automation through the top of the table, after the agreement slot.
+     */
+    protected final ItemStackHandler agreementQueue;
+
+    /**
+     * Position of the table which agreement this table works on, when 'AdjacentTablesShareAgreement' is enabled and this table has no agreement of its own.
+     * Link is kept while that table is unloaded - deliveries are counted by {@link SharedAgreementCounters}.
+     */
+    protected @Nullable BlockPos linkedTablePos;
+    /**
+     * Copy of the agreement stack of the linked table. This table works on its own agreement read from it.
+     */
+    protected ItemStack linkedAgreementItem = ItemStack.EMPTY;
+    /**
+     * Key of the delivered counter in {@link SharedAgreementCounters}. Set on the table that shares its agreement and on tables linked to it.
+     */
+    protected @Nullable UUID sharedAgreementKey;
+    /**
+     * Table has an agreement that can be worked on (its own or of the linked table). Read by packager AI.
+     */
+    protected boolean activeAgreement = false;
+
     protected DeliveryAgreement agreement = DeliveryAgreement.EMPTY;
+    /**
+     * Built lazily for requested items of current agreement.
+     */
+    protected @Nullable RequestedItemsMatcher requestedItemsMatcher;
 
     public DeliveryTableBlockEntity(BlockPos pos, BlockState blockState) {
         super(Wares.BlockEntities.DELIVERY_TABLE.get(), pos, blockState);
         inventory = createInventory(SLOTS);
-        inventoryHandlers = SidedInvWrapper.create(this, Direction.DOWN, Direction.UP, Direction.NORTH);
+        agreementQueue = createAgreementQueue();
+        inventoryHandlers = createInventoryHandlers();
     }
 
     public void serverTick() {
         if (level == null)
             return;
 
+        if (blockStateUpdatePending) {
+            blockStateUpdatePending = false;
+            updateBlockState();
+        }
+
+        if (neighborsUpdatePending) {
+            neighborsUpdatePending = false;
+            setChanged();
+        }
+
+        if (sleeping) {
+            if (sleepSettings == Config.settings())
+                return;
+
+            wakeUp();
+        }
+
+        if (catchUpFromTime >= 0)
+            tryCatchUp();
+
+        // Deliveries of linked tables could complete the agreement:
+        syncSharedDelivered();
         convertAgreementStackIfNeeded();
 
+        boolean automated = Config.settings().tablePullsAndPushesItems();
+        boolean automationDue = automated && level.getGameTime() >= nextAutomationTime;
+        if (automationDue) {
+            nextAutomationTime = level.getGameTime() + AUTOMATION_INTERVAL;
+            pushOutputItems();
+        }
+
         ItemStack agreementItem = getAgreementItem();
-        if (!agreementItem.is(Wares.Items.DELIVERY_AGREEMENT.get())) {
-            if (progress > 0){
+        if (!agreementItem.is(Wares.Items.DELIVERY_AGREEMENT.get()) && !updateLink()) {
+            if (getProgress() > 0)
                 resetProgress();
-                setChanged();
-            }
 
-            if (agreementItem.is(Wares.Items.COMPLETED_DELIVERY_AGREEMENT.get())) {
+            // Expired agreement stays in the slot, unless there is a next one in the queue:
+            if (agreementItem.is(Wares.Items.COMPLETED_DELIVERY_AGREEMENT.get())
+                    || (hasQueuedAgreements() && agreementItem.is(Wares.Items.EXPIRED_DELIVERY_AGREEMENT.get()))) {
                 ItemStack agreementStack = getItem(AGREEMENT_SLOT);
                 for (int outputSlot : OUTPUT_SLOTS) {
                     if (getItem(outputSlot).isEmpty()) {
@@ -130,42 +279,280 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
                 }
             }
 
+            if (getAgreementItem().isEmpty() && hasQueuedAgreements()) {
+                // Table was woken up by the agreement slot change - next agreement will be processed on the next tick.
+                setAgreementItem(takeQueuedAgreement());
+                return;
+            }
+
+            // Nothing will change until agreement slot or outputs are changed (or until outputs can be pushed again):
+            sleep(automated && hasItemsInOutput() ? nextAutomationTime : Long.MAX_VALUE);
             return;
         }
 
-        int prevProgress = progress;
+        if (automationDue && !isDelivering())
+            pullRequestedItems();
+
         Deliverability deliverability = getDeliverability();
 
-        if (deliverability == Deliverability.CAN_DELIVER) {
-            boolean packagerWorkingAtTable = isPackagerWorkingAtTable();
-            if (!deliveringManually && Config.PACKAGER_REQUIRED.get() && !packagerWorkingAtTable) {
-                canDeliverManually = Config.MANUAL_DELIVERY_ALLOWED.get();
-                return;
-            }
+        if (deliverability != Deliverability.CAN_DELIVER) {
+            if (deliverability == Deliverability.NO_SPACE_FOR_OUTPUT)
+                pauseDelivery();
             else
-                canDeliverManually = false;
+                resetProgress();
 
-            if (deliveringManually && packagerWorkingAtTable) {
-                // Adjusting progress to not complete instantly when worker arrives.
-                double completion = (progress / (double)getDeliveryTime());
-                progress = Math.round((float) (agreement.getDeliveryTimeOrDefault() * completion));
+            boolean automationCanHelp = deliverability == Deliverability.NO_INPUT || deliverability == Deliverability.NO_SPACE_FOR_OUTPUT;
+            sleep(automated && automationCanHelp ? Math.min(nextAutomationTime, getAgreementExpireTime()) : getAgreementExpireTime());
+            return;
+        }
 
-                deliveringManually = false;
-            }
+        boolean packagerWorkingAtTable = isPackagerWorkingAtTable();
+        if (!deliveringManually && Config.settings().packagerRequired() && !packagerWorkingAtTable) {
+            canDeliverManually = Config.settings().manualDeliveryAllowed();
+            pauseDelivery();
+            // Packager report wakes the table up when packager starts working at the table:
+            long wakeUpAt = getAgreementExpireTime();
+            if (catchUpFromTime >= 0 && catchUpDeadline >= 0)
+                wakeUpAt = Math.min(wakeUpAt, catchUpDeadline + 1);
+            if (automated && hasItemsInOutput())
+                wakeUpAt = Math.min(wakeUpAt, nextAutomationTime);
+            sleep(wakeUpAt);
+            return;
+        }
+        else
+            canDeliverManually = false;
 
-            progress++;
+        if (deliveringManually && packagerWorkingAtTable) {
+            // Adjusting progress to not complete instantly when worker arrives.
+            double completion = (getProgress() / (double)getDeliveryTime());
+            deliveringManually = false;
+            setProgress(Math.round((float) (agreement.getDeliveryTimeOrDefault() * completion)));
         }
-        else if (deliverability != Deliverability.NO_SPACE_FOR_OUTPUT)
-            resetProgress();
 
-        if (progress >= getDeliveryTime()) {
+        if (!isDelivering())
+            startDelivery();
+
+        if (getProgress() >= getDeliveryTime()) {
             int deliveredPackages = deliver(getBatchSize());
-            if (deliveredPackages > 0)
+            if (deliveredPackages > 0) {
                 onBatchDelivered(deliveredPackages);
+                if (automated)
+                    pushOutputItems();
+            }
+        }
+        else {
+            // Nothing to do until delivery is completed. Table will be woken up earlier if something changes.
+            long wakeUpAt = Math.min(deliveryStartTime + getDeliveryTime(), getAgreementExpireTime());
+            // Packager that stops reporting does not wake the table:
+            if (!deliveringManually && Config.settings().packagerRequired())
+                wakeUpAt = Math.min(wakeUpAt, getPackagerWorkExpireTime());
+            sleep(wakeUpAt);
+        }
+    }
+
+    /**
+     * Puts table to sleep until it will be woken up by a change or when specified game time comes.
+     */
+    protected void sleep(long wakeUpGameTime) {
+        sleeping = true;
+        wakeUpTime = wakeUpGameTime;
+        sleepSettings = Config.settings();
+
+        scheduleWakeUp(wakeUpGameTime);
+    }
+
+    protected void scheduleWakeUp(long gameTime) {
+        if (gameTime < scheduledWakeUpTime && level instanceof ServerLevel serverLevel) {
+            scheduledWakeUpTime = gameTime;
+            DeliveryScheduler.get(serverLevel).schedule(getBlockPos(), gameTime);
         }
+    }
+
+    public void wakeUp() {
+        sleeping = false;
+        wakeUpTime = Long.MAX_VALUE;
+    }
+
+    /**
+     * Called by {@link DeliveryScheduler} when scheduled time has come.
+     * Scheduled entries are not removed when table wakes up earlier, so outdated ones are ignored here.
+     * If table has fallen asleep again with a later wake up time - that time is scheduled now.
+     */
+    public void onScheduledWakeUp(long gameTime) {
+        if (scheduledWakeUpTime <= gameTime)
+            scheduledWakeUpTime = Long.MAX_VALUE;
+
+        if (!sleeping)
+            return;
+
+        if (wakeUpTime <= gameTime)
+            wakeUp();
+        else if (wakeUpTime != Long.MAX_VALUE)
+            scheduleWakeUp(wakeUpTime);
+    }
+
+    /**
+     * Links this table to an adjacent table with an agreement (or to the table that adjacent one is linked to),
+     * if this table has no agreements of its own. Keeps current link while shared counter of the agreement exists -
+     * even if linked table is not loaded.
+     * @return true if table is linked and should work on the agreement of the linked table.
+     */
+    protected boolean updateLink() {
+        if (!Config.settings().adjacentTablesShareAgreement() || !getAgreementItem().isEmpty() || hasQueuedAgreements()
+                || !(level instanceof ServerLevel serverLevel)) {
+            unlink();
+            return false;
+        }
+
+        SharedAgreementCounters counters = SharedAgreementCounters.get(serverLevel);
+        if (isLinked() && counters.contains(Objects.requireNonNull(sharedAgreementKey)))
+            return true;
+
+        unlink();
 
-        if (prevProgress != progress)
+        for (Direction direction : Direction.Plane.HORIZONTAL) {
+            BlockPos pos = getBlockPos().relative(direction);
+            if (!serverLevel.isLoaded(pos) || !(serverLevel.getBlockEntity(pos) instanceof DeliveryTableBlockEntity adjacentTable))
+                continue;
+
+            @Nullable DeliveryTableBlockEntity owner = adjacentTable.getLinkedTable();
+            if (owner == null && !adjacentTable.isLinked())
+                owner = adjacentTable;
+
+            if (owner != null && owner != this && owner.canBeLinkedTo()) {
+                linkedTablePos = owner.getBlockPos();
+                sharedAgreementKey = owner.shareAgreement(counters);
+                counters.addLinkedTable(sharedAgreementKey, getBlockPos());
+                linkedAgreementItem = owner.getAgreementItem().copy();
+                agreement = DeliveryAgreement.fromItemStack(linkedAgreementItem).orElse(DeliveryAgreement.EMPTY);
+                activeAgreement = true;
+                setChanged();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected void unlink() {
+        if (isLinked()) {
+            detachFromLinkedTable();
+            agreement = DeliveryAgreement.fromItemStack(getAgreementItem()).orElse(DeliveryAgreement.EMPTY);
+            activeAgreement = getAgreementItem().is(Wares.Items.DELIVERY_AGREEMENT.get());
+            resetProgress();
+        }
+    }
+
+    protected void detachFromLinkedTable() {
+        if (isLinked()) {
+            if (sharedAgreementKey != null && level instanceof ServerLevel serverLevel)
+                SharedAgreementCounters.get(serverLevel).removeLinkedTable(sharedAgreementKey, getBlockPos());
+            linkedTablePos = null;
+            linkedAgreementItem = ItemStack.EMPTY;
+            sharedAgreementKey = null;
+            setChanged();
+        }
+    }
+
+    protected boolean canBeLinkedTo() {
+        return !isRemoved() && !isLinked() && getAgreementItem().is(Wares.Items.DELIVERY_AGREEMENT.get()) && !agreement.isEmpty();
+    }
+
+    public boolean isLinked() {
+        return linkedTablePos != null;
+    }
+
+    /**
+     * @return linked table if it is loaded and still shares the agreement this table works on. Null otherwise.
+     */
+    protected @Nullable DeliveryTableBlockEntity getLinkedTable() {
+        if (linkedTablePos == null || level == null || !level.isLoaded(linkedTablePos))
+            return null;
+
+        return level.getBlockEntity(linkedTablePos) instanceof DeliveryTableBlockEntity table && !table.isRemoved()
+                && table.sharedAgreementKey != null && table.sharedAgreementKey.equals(sharedAgreementKey) ? table : null;
+    }
+
+    /**
+     * Creates shared delivered counter for the agreement of this table, if it was not created yet.
+     * @return key of the counter.
+     */
+    protected UUID shareAgreement(SharedAgreementCounters counters) {
+        if (sharedAgreementKey == null || !counters.contains(sharedAgreementKey)) {
+            sharedAgreementKey = counters.create(agreement.getDelivered());
             setChanged();
+        }
+        return sharedAgreementKey;
+    }
+
+    /**
+     * Removes shared counter of the agreement of this table and wakes up tables that were linked to it, so they can unlink.
+     * Linked tables are not necessarily adjacent to this table.
+     */
+    protected void releaseSharedAgreement() {
+        if (isLinked() || sharedAgreementKey == null)
+            return;
+
+        if (level instanceof ServerLevel serverLevel) {
+            for (BlockPos pos : SharedAgreementCounters.get(serverLevel).remove(sharedAgreementKey)) {
+                if (serverLevel.isLoaded(pos) && serverLevel.getBlockEntity(pos) instanceof DeliveryTableBlockEntity linkedTable)
+                    linkedTable.wakeUp();
+            }
+        }
+
+        sharedAgreementKey = null;
+        setChanged();
+    }
+
+    /**
+     * Removes this table from the shared agreement. Should be called when table is removed from the level (not unloaded).
+     */
+    public void onRemovedFromLevel() {
+        detachFromLinkedTable();
+        releaseSharedAgreement();
+    }
+
+    /**
+     * Updates delivered count of the agreement from the shared counter. Table that owns the agreement stack writes it to the stack.
+     */
+    protected void syncSharedDelivered() {
+        if (sharedAgreementKey == null || !(level instanceof ServerLevel serverLevel))
+            return;
+
+        int delivered = SharedAgreementCounters.get(serverLevel).getDelivered(sharedAgreementKey);
+        if (delivered < 0 || delivered == agreement.getDelivered())
+            return;
+
+        agreement.setDelivered(delivered);
+        agreement.onDeliver(0); // Completes the agreement if ordered count is reached.
+
+        if (!isLinked()) {
+            updateAgreementStack();
+            onInventoryChanged();
+            sendUpdateToTrackingClients();
+        }
+    }
+
+    /**
+     * Wakes up adjacent tables, so they can link to (or unlink from) this table when its agreement changes.
+     */
+    protected void wakeUpAdjacentTables() {
+        if (level == null || level.isClientSide || !Config.settings().adjacentTablesShareAgreement())
+            return;
+
+        for (Direction direction : Direction.Plane.HORIZONTAL) {
+            BlockPos pos = getBlockPos().relative(direction);
+            if (level.isLoaded(pos) && level.getBlockEntity(pos) instanceof DeliveryTableBlockEntity adjacentTable)
+                adjacentTable.wakeUp();
+        }
+    }
+
+    protected long getAgreementExpireTime() {
+        return agreement.canExpire() ? agreement.getExpireTimestamp() : Long.MAX_VALUE;
+    }
+
+    public boolean isSleeping() {
+        return sleeping;
     }
 
     private void onBatchDelivered(final int deliveredBatches) {
@@ -177,56 +564,105 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
             level.playSound(null, getBlockPos(), Wares.SoundEvents.WRITING.get(), SoundSource.BLOCKS,
                     0.5f, level.getRandom().nextFloat() * 0.1f + 0.95f);
 
-        Optional<Villager> worker = getPackagerWorker(16);
-        if (worker.isPresent()) {
-            Villager packager = worker.get();
-            int xp = packager.getVillagerXp() + deliveredBatches;
-            packager.setVillagerXp(xp);
-
-            int villagerLevel = packager.getVillagerData().getLevel();
-            if (VillagerData.canLevelUp(villagerLevel) && xp >= Config.getMaxXpPerLevel(villagerLevel)) {
-                level.playSound(null, packager, SoundEvents.PLAYER_LEVELUP, SoundSource.NEUTRAL, 0.75f, 1);
-                packager.increaseProfessionLevelOnUpdate = true;
-                packager.updateMerchantTimer = 30;
-            }
+        if (isPackagerNearby(PACKAGER_XP_RADIUS)) {
+            pendingPackagerXp += deliveredBatches;
+            setChanged();
         }
     }
 
     protected boolean isPackagerWorkingAtTable() {
-        Optional<Villager> worker = getPackagerWorker(PACKAGER_WORK_RADIUS);
-        if (worker.isEmpty())
+        if (!isPackagerNearby(PACKAGER_WORK_RADIUS))
             return false;
 
-        if (!Config.PACKAGER_SHOULD_BE_WORKING.get())
+        if (!Config.settings().packagerShouldBeWorking())
             return true;
 
-        Villager packager = worker.get();
-        final long lastWorkedAt = packager.getBrain().getMemory(MemoryModuleType.LAST_WORKED_AT_POI).orElse(-1L);
-
-        if (lastWorkedAt < 0L)
+        if (packagerLastWorkedAt < 0L)
             return false;
 
         assert level != null;
-        final int timeSinceLastWork = (int)(level.getGameTime() - lastWorkedAt);
+        final int timeSinceLastWork = (int)(level.getGameTime() - packagerLastWorkedAt);
         return timeSinceLastWork < PACKAGER_LAST_WORK_THRESHOLD;
     }
 
-    public Optional<Villager> getPackagerWorker(final int radius) {
+    /**
+     * @return game time at which packager will no longer be considered working at the table, if it does not report again.
+     */
+    protected long getPackagerWorkExpireTime() {
+        if (packagerReportTime < 0L)
+            return Long.MAX_VALUE;
+
+        long time = packagerReportTime + PACKAGER_REPORT_TIMEOUT + 1;
+        if (Config.settings().packagerShouldBeWorking() && packagerLastWorkedAt >= 0L)
+            time = Math.min(time, packagerLastWorkedAt + PACKAGER_LAST_WORK_THRESHOLD);
+        return time;
+    }
+
+    /**
+     * @return true if packager has recently reported and was within the radius of the table at that time.
+     */
+    protected boolean isPackagerNearby(final int radius) {
         assert level != null;
-        if (level.isClientSide)
-            throw new IllegalStateException("Should not be called client-side. Only server has info about villager job site.");
+        if (packagerId == null || packagerBoundingBox == null || packagerReportTime < 0L
+                || level.getGameTime() - packagerReportTime > PACKAGER_REPORT_TIMEOUT)
+            return false;
 
-        List<Villager> villagersInRadius = level.getEntitiesOfClass(Villager.class, new AABB(getBlockPos()).inflate(radius));
+        return new AABB(getBlockPos()).inflate(radius).intersects(packagerBoundingBox);
+    }
 
-        for (Villager villager : villagersInRadius) {
-            if (villager.getVillagerData().getProfession() == Wares.Villagers.PACKAGER.get()) {
-                Optional<GlobalPos> jobSiteMemory = villager.getBrain().getMemory(MemoryModuleType.JOB_SITE);
-                if (jobSiteMemory.isPresent() && jobSiteMemory.get().pos().equals(getBlockPos()))
-                    return Optional.of(villager);
-            }
+    /**
+     * Called by the packager that has this table as a job site, periodically.
+     * @param villagerLevel packager's current level.
+     * @param lastWorkedAt game time at which packager last worked at its job site, -1 if never.
+     */
+    public void reportPackagerWork(Villager villager, int villagerLevel, long lastWorkedAt, long gameTime) {
+        boolean wasWorking = isPackagerWorkingAtTable();
+
+        bindPackager(villager);
+        packagerLevel = villagerLevel;
+        packagerLastWorkedAt = lastWorkedAt;
+        packagerBoundingBox = villager.getBoundingBox();
+        packagerReportTime = gameTime;
+
+        if (wasWorking != isPackagerWorkingAtTable())
+            wakeUp();
+    }
+
+    /**
+     * Called by the packager when it reports to the table.
+     * @return xp that packager has earned since the last call. Pending xp is reset.
+     */
+    public int takePendingPackagerXp(Villager villager) {
+        if (pendingPackagerXp <= 0 || !villager.getUUID().equals(packagerId))
+            return 0;
+
+        int xp = pendingPackagerXp;
+        pendingPackagerXp = 0;
+        setChanged();
+        return xp;
+    }
+
+    protected void bindPackager(Villager villager) {
+        if (!villager.getUUID().equals(packagerId)) {
+            packagerId = villager.getUUID();
+            pendingPackagerXp = 0;
+            setChanged();
+            wakeUp();
         }
+    }
 
-        return Optional.empty();
+    /**
+     * Unbinds packager from this table. Called when packager loses the table as a job site.
+     */
+    public void unbindPackager(Villager villager) {
+        if (villager.getUUID().equals(packagerId)) {
+            packagerId = null;
+            pendingPackagerXp = 0;
+            packagerReportTime = -1L;
+            packagerBoundingBox = null;
+            setChanged();
+            wakeUp();
+        }
     }
 
     public DeliveryAgreement getAgreement() {
@@ -234,77 +670,247 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     }
 
     public int getBatchSize() {
-        Optional<Villager> worker = getPackagerWorker(PACKAGER_WORK_RADIUS);
-        int packages = Config.DELIVERIES_REQUIRE_BOXES.get() ? getItem(BOX_SLOT).getCount() : Integer.MAX_VALUE;
-        int villagerLevel = worker.map(villager -> villager.getVillagerData().getLevel()).orElse(1);
-        return Math.min(packages, Config.getBatchSizeForLevel(villagerLevel));
+        int packages = Config.settings().deliveriesRequireBoxes() ? getItem(BOX_SLOT).getCount() : Integer.MAX_VALUE;
+        int villagerLevel = isPackagerNearby(PACKAGER_WORK_RADIUS) ? packagerLevel : 1;
+        return Math.min(packages, Config.settings().batchSizeForLevel(villagerLevel));
     }
 
     protected int getDeliveryTime() {
         int time = agreement.getDeliveryTimeOrDefault();
-        return deliveringManually ? Math.round(time * Config.MANUAL_DELIVERY_TIME_MODIFIER.get().floatValue()) : time;
+        return deliveringManually ? Math.round(time * Config.settings().manualDeliveryTimeModifier()) : time;
+    }
+
+    public boolean isDelivering() {
+        return deliveryStartTime >= 0;
+    }
+
+    public int getProgress() {
+        if (isDelivering() && level != null)
+            return (int) Math.min(level.getGameTime() - deliveryStartTime, Integer.MAX_VALUE);
+
+        return pausedProgress;
+    }
+
+    protected void setProgress(int progress) {
+        if (isDelivering() && level != null)
+            deliveryStartTime = level.getGameTime() - progress;
+        else
+            pausedProgress = progress;
+    }
+
+    protected void startDelivery() {
+        assert level != null;
+        deliveryStartTime = level.getGameTime() - pausedProgress;
+        pausedProgress = 0;
+    }
+
+    protected void pauseDelivery() {
+        if (isDelivering()) {
+            pausedProgress = getProgress();
+            deliveryStartTime = -1L;
+        }
     }
 
     protected void resetProgress() {
-        progress = 0;
+        deliveryStartTime = -1L;
+        pausedProgress = 0;
         deliveringManually = false;
         canDeliverManually = false;
     }
 
     public void startManualDelivery() {
-        if (Config.MANUAL_DELIVERY_ALLOWED.get() && canDeliverManually && !deliveringManually && !isPackagerWorkingAtTable() && getDeliverability() == Deliverability.CAN_DELIVER) {
+        if (Config.settings().manualDeliveryAllowed() && canDeliverManually && !deliveringManually && !isPackagerWorkingAtTable() && getDeliverability() == Deliverability.CAN_DELIVER) {
+            // Adjusting progress to manual delivery time modifier:
+            int duration = agreement.getDeliveryTimeOrDefault();
+            double completion = getProgress() / (double)duration;
+
             deliveringManually = true;
             canDeliverManually = false;
 
-            // Adjusting progress to manual delivery time modifier:
-            int duration = agreement.getDeliveryTimeOrDefault();
-            double completion = progress / (double)duration;
-            progress = (int) Math.round(getDeliveryTime() * completion);
+            setProgress((int) Math.round(getDeliveryTime() * completion));
+            wakeUp();
         }
     }
 
     protected int deliver(final int batchCount) {
-        int deliveredCount = 0;
-        for (int i = 0; i < batchCount; i++) {
-            // First check is just to be sure,
-            // Afterward it is necessary to check because items have changed.
-            if (getDeliverability() != Deliverability.CAN_DELIVER)
-                return deliveredCount;
-
-            consumePackage();
-            consumeFromInputSlots(agreement.getRequested());
-            insertCopiesToOutputSlots(agreement.getPayment());
-            deliveredCount++;
+        if (getDeliverability() != Deliverability.CAN_DELIVER)
+            return 0;
 
-            assert level != null;
+        return deliverBatches(getDeliverableBatches(batchCount));
+    }
+
+    protected void tryCatchUp() {
+        assert level != null;
+        if (!Config.settings().catchUpDeliveries()) {
+            catchUpFromTime = -1L;
+            return;
+        }
+
+        if (Config.settings().packagerRequired() && !isPackagerWorkingAtTable()) {
+            if (catchUpDeadline < 0)
+                catchUpDeadline = level.getGameTime() + PACKAGER_REPORT_TIMEOUT;
+            else if (level.getGameTime() > catchUpDeadline)
+                catchUpFromTime = -1L;
+            return;
+        }
+
+        long fromTime = catchUpFromTime;
+        catchUpFromTime = -1L;
+        catchUpDeliveries(fromTime);
+    }
+
+    /**
+     * Makes deliveries that would have been made between fromTime and now, in one step.
+     * Table state (items, boxes, space) could not have changed while it was not loaded,
+     * so deliveries are limited by the same things as regular ones, and by agreement expiry time.
+     */
+    protected void catchUpDeliveries(long fromTime) {
+        assert level != null;
+        long toTime = Math.min(level.getGameTime(), getAgreementExpireTime());
+        if (toTime <= fromTime || !getAgreementItem().is(Wares.Items.DELIVERY_AGREEMENT.get()))
+            return;
+
+        if (getDeliverability(fromTime) != Deliverability.CAN_DELIVER)
+            return;
+
+        // Manual delivery does not continue without a player.
+        deliveringManually = false;
+        canDeliverManually = false;
+
+        int deliveryTime = getDeliveryTime();
+        long elapsed = toTime - fromTime + getProgress();
+        long cycles = elapsed / deliveryTime;
+
+        if (cycles <= 0) {
+            setProgress((int) elapsed);
+            return;
+        }
+
+        int maxBatches = (int) Math.min(cycles * getBatchSize(), Integer.MAX_VALUE);
+        int batches = getDeliverableBatches(maxBatches);
+        int delivered = deliverBatches(batches);
+
+        if (delivered > 0) {
+            onBatchDelivered(delivered);
+
+            // If time was the limit - delivery that was in progress continues:
+            if (delivered == maxBatches && !agreement.isCompleted())
+                setProgress((int) (elapsed % deliveryTime));
+        }
+    }
+
+    /**
+     * Consumes requested items and boxes, and inserts payment for the specified number of batches.
+     * Batches should be already checked with {@link #getDeliverableBatches}.
+     */
+    protected int deliverBatches(int batches) {
+        if (batches <= 0)
+            return 0;
 
-            agreement.onDeliver();
+        consumePackages(batches);
+        getRequestedItemsMatcher().consume(inventory, INPUT_SLOTS, batches);
+        for (int i = 0; i < batches; i++) {
+            insertCopiesToOutputSlots(agreement.getPayment());
+        }
 
-            agreement.toItemStack(getAgreementItem());
-            sendUpdateToNearbyClients();
+        assert level != null;
+
+        addDelivered(batches);
 
-            if (agreement.isCompleted()) {
-                boolean almostExpired = getAgreement().canExpire() && getAgreement().getExpireTimestamp() - level.getGameTime() < 20 * 60; // 1 min
-                if (almostExpired)
-                    getAgreementItem().getOrCreateTag().putBoolean("almostExpired", true);
-                int experience = getAgreement().getExperience();
-                if (experience > 0 && level instanceof ServerLevel serverLevel)
-                    ExperienceOrb.award(serverLevel, Vec3.atCenterOf(getBlockPos()).add(0, 0.5f, 0), experience);
-                break;
+        if (isLinked()) {
+            // Linked table writes delivered count to its agreement stack. If it is not loaded - it will be synced when loaded.
+            @Nullable DeliveryTableBlockEntity linkedTable = getLinkedTable();
+            if (linkedTable != null) {
+                linkedTable.syncSharedDelivered();
+                linkedTable.wakeUp();
             }
         }
+        else
+            updateAgreementStack();
+
+        // Agreement stack is updated in place - inventory is not notified about it:
+        onInventoryChanged();
+
+        if (agreement.isCompleted()) {
+            int experience = getAgreement().getExperience();
+            if (experience > 0 && level instanceof ServerLevel serverLevel)
+                ExperienceOrb.award(serverLevel, Vec3.atCenterOf(getBlockPos()).add(0, 0.5f, 0), experience);
+        }
 
         resetProgress();
-        return deliveredCount;
+        sendUpdateToTrackingClients();
+        return batches;
+    }
+
+    /**
+     * Adds delivered batches to the shared counter if agreement is shared. Delivered count of the agreement is taken from the counter -
+     * it includes deliveries of all linked tables.
+     */
+    protected void addDelivered(int batches) {
+        if (sharedAgreementKey != null && level instanceof ServerLevel serverLevel) {
+            int delivered = SharedAgreementCounters.get(serverLevel).addDelivered(sharedAgreementKey, batches);
+            if (delivered >= 0) {
+                agreement.setDelivered(delivered);
+                agreement.onDeliver(0); // Completes the agreement if ordered count is reached.
+                return;
+            }
+        }
+
+        agreement.onDeliver(batches);
+    }
+
+    /**
+     * Writes delivered count of the agreement to the agreement stack.
+     */
+    protected void updateAgreementStack() {
+        assert level != null;
+        agreement.updateItemStack(getAgreementItem());
+
+        if (agreement.isCompleted()) {
+            boolean almostExpired = getAgreement().canExpire() && getAgreement().getExpireTimestamp() - level.getGameTime() < 20 * 60; // 1 min
+            if (almostExpired)
+                getAgreementItem().getOrCreateTag().putBoolean("almostExpired", true);
+            // Completion changes more than delivered count - agreement stack is sent whole.
+            changedSlotsForClients |= 1 << AGREEMENT_SLOT;
+        }
+        else
+            deliveredChangedForClients = true;
+    }
+
+    /**
+     * Calculates how many whole batches (up to maxBatches) can be delivered at once.
+     * Limited by boxes, requested items in input slots, remaining ordered count and free space in output slots.
+     */
+    protected int getDeliverableBatches(int maxBatches) {
+        int batches = maxBatches;
+
+        if (Config.settings().deliveriesRequireBoxes())
+            batches = Math.min(batches, getItem(BOX_SLOT).getCount());
+
+        if (!agreement.isInfinite())
+            batches = Math.min(batches, agreement.getOrdered() - Math.max(0, agreement.getDelivered()));
+
+        if (batches <= 0)
+            return 0;
+
+        batches = getRequestedItemsMatcher().countBatches(inventory, INPUT_SLOTS, batches);
+        if (batches <= 0)
+            return 0;
+
+        return countBatchesFittingInOutput(batches);
     }
 
-    private void consumePackage() {
-        if (Config.DELIVERIES_REQUIRE_BOXES.get())
-            removeItem(BOX_SLOT, 1);
+    private void consumePackages(int count) {
+        if (Config.settings().deliveriesRequireBoxes())
+            removeItem(BOX_SLOT, count);
     }
 
     protected Deliverability getDeliverability() {
-        if (agreement.isEmpty() || !agreement.canDeliver(level != null ? level.getGameTime() : 0))
+        return getDeliverability(level != null ? level.getGameTime() : 0);
+    }
+
+    protected Deliverability getDeliverability(long gameTime) {
+        if (agreement.isEmpty() || !agreement.canDeliver(gameTime))
             return Deliverability.AGREEMENT_INVALID;
         if (!hasPackage())
             return Deliverability.NO_PACKAGES;
@@ -317,91 +923,215 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     }
 
     protected boolean hasPackage() {
-        return !getItem(BOX_SLOT).isEmpty() || !Config.DELIVERIES_REQUIRE_BOXES.get();
+        return !getItem(BOX_SLOT).isEmpty() || !Config.settings().deliveriesRequireBoxes();
     }
 
     protected boolean hasRequestedItems() {
-        List<RequestedItem> requestedItems = agreement.getRequested();
+        return getRequestedItemsMatcher().matches(inventory, INPUT_SLOTS);
+    }
 
-        List<ItemStack> inputStacks = new ArrayList<>();
-        for (int slotIndex : INPUT_SLOTS) {
-            ItemStack stackInSlot = inventory.getStackInSlot(slotIndex);
-            if (!stackInSlot.isEmpty())
-                inputStacks.add(stackInSlot.copy());
-        }
+    protected RequestedItemsMatcher getRequestedItemsMatcher() {
+        if (requestedItemsMatcher == null || !requestedItemsMatcher.isFor(agreement.getRequested()))
+            requestedItemsMatcher = new RequestedItemsMatcher(agreement.getRequested());
+        return requestedItemsMatcher;
+    }
 
-        for (RequestedItem requestedItem : requestedItems) {
-            if (requestedItem.isEmpty())
-                break;
-            int requiredCount = requestedItem.getCount();
+    /**
+     * Used to simulate inserting payment into output slots without copying the stacks.
+     * Slot content is represented by a stack that it can stack with (live stack in the slot or payment stack) and a count.
+     */
+    private final ItemStack[] simulatedOutputStacks = new ItemStack[OUTPUT_SLOTS.length];
+    private final int[] simulatedOutputCounts = new int[OUTPUT_SLOTS.length];
 
-            for (ItemStack stack : inputStacks) {
-                if (!stack.isEmpty() && requestedItem.matches(stack)) {
-                    ItemStack split = stack.split(requiredCount);
-                    requiredCount -= split.getCount();
-                }
+    protected boolean hasSpaceForPayment() {
+        return countBatchesFittingInOutput(1) > 0;
+    }
+
+    /**
+     * Simulates inserting payment items into output slots the same way as {@link #insertCopiesToOutputSlots}.
+     * @return how many times (up to maxBatches) payment items would fit in the output slots.
+     */
+    protected int countBatchesFittingInOutput(int maxBatches) {
+        List<ItemStack> payment = getAgreement().getPayment();
+        if (payment.isEmpty())
+            return maxBatches;
+
+        for (int i = 0; i < OUTPUT_SLOTS.length; i++) {
+            ItemStack stackInSlot = inventory.getStackInSlot(OUTPUT_SLOTS[i]);
+            simulatedOutputStacks[i] = stackInSlot;
+            simulatedOutputCounts[i] = stackInSlot.getCount();
+        }
 
-                if (requiredCount <= 0)
-                    break;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                for (ItemStack paymentStack : payment) {
+                    if (!simulateInsertToOutput(paymentStack))
+                        return batch;
+                }
             }
 
-            if (requiredCount > 0)
-                return false;
+            return maxBatches;
+        }
+        finally {
+            // Do not keep references to the stacks.
+            Arrays.fill(simulatedOutputStacks, null);
         }
-
-        return true;
     }
 
-    /**
-     * This inventory is used to check if paymentItems would fit in the output slots by fake adding items to it.
-     * There probably exists a simpler way.
-     */
-    private final SimpleContainer outputSpaceCheckContainer = new SimpleContainer(6);
+    private boolean simulateInsertToOutput(ItemStack stack) {
+        int remaining = stack.getCount();
+        if (remaining <= 0)
+            return true;
 
-    protected boolean hasSpaceForPayment() {
-        outputSpaceCheckContainer.clearContent();
+        for (int i = 0; i < OUTPUT_SLOTS.length && remaining > 0; i++) {
+            int limit = Math.min(inventory.getSlotLimit(OUTPUT_SLOTS[i]), stack.getMaxStackSize());
+            int count = simulatedOutputCounts[i];
 
-        int i = 0;
-        for (int slotIndex : OUTPUT_SLOTS) {
-            outputSpaceCheckContainer.setItem(i, inventory.getStackInSlot(slotIndex).copy());
-            i++;
-        }
+            if (count <= 0)
+                simulatedOutputStacks[i] = stack;
+            else if (count >= limit || !ItemHandlerHelper.canItemStacksStack(simulatedOutputStacks[i], stack))
+                continue;
 
-        for (ItemStack stack : getAgreement().getPayment()) {
-            if (!outputSpaceCheckContainer.addItem(stack.copy()).isEmpty())
-                return false;
+            int inserted = Math.min(limit - count, remaining);
+            simulatedOutputCounts[i] = count + inserted;
+            remaining -= inserted;
         }
 
-        return true;
+        return remaining <= 0;
     }
 
-    protected void consumeFromInputSlots(List<RequestedItem> requestedItems) {
-        for (RequestedItem requestedItem : requestedItems) {
-            int requiredCount = requestedItem.getCount();
-
-            for (int slotIndex : INPUT_SLOTS) {
-                if (requestedItem.matches(inventory.getStackInSlot(slotIndex))) {
-                    ItemStack extractedStack = inventory.extractItem(slotIndex, requiredCount, false);
-                    requiredCount -= extractedStack.getCount();
+    protected void consumeFromInputSlots() {
+        getRequestedItemsMatcher().consume(inventory, INPUT_SLOTS);
+    }
 
-                    if (requiredCount <= 0)
+    protected void insertCopiesToOutputSlots(List<ItemStack> paymentItems) {
+        assert level != null;
+        for (ItemStack stack : paymentItems) {
+            // Loot table packages are seeded when they are paid - each of them gets its own contents that can be previewed.
+            for (ItemStack copy : PackageItem.copyWithLootSeeds(stack, level.getRandom())) {
+                ItemStack insertedStack = copy;
+                for (int slotIndex : OUTPUT_SLOTS) {
+                    insertedStack = inventory.insertItem(slotIndex, insertedStack, false);
+                    if (insertedStack.isEmpty())
                         break;
                 }
             }
         }
     }
 
-    protected void insertCopiesToOutputSlots(List<ItemStack> paymentItems) {
-        for (ItemStack stack : paymentItems) {
-            ItemStack insertedStack = stack.copy();
-            for (int slotIndex : OUTPUT_SLOTS) {
-                insertedStack = inventory.insertItem(slotIndex, insertedStack, false);
-                if (insertedStack.isEmpty())
-                    break;
+
+    // <Automation>
+
+    /**
+     * Takes items that are missing for the next batch from inventories adjacent to the sides of the table.
+     * Adjacent Delivery Tables are skipped - their sides expose output slots, and tables would take payment from each other.
+     */
+    protected void pullRequestedItems() {
+        int batches = getBatchSize();
+        if (!agreement.isInfinite())
+            batches = Math.min(batches, agreement.getOrdered() - Math.max(0, agreement.getDelivered()));
+        if (batches <= 0)
+            return;
+
+        RequestedItemsMatcher matcher = getRequestedItemsMatcher();
+        int[] missing = matcher.countMissing(inventory, INPUT_SLOTS, batches).clone();
+        if (Arrays.stream(missing).allMatch(count -> count <= 0))
+            return;
+
+        for (Direction direction : Direction.Plane.HORIZONTAL) {
+            @Nullable BlockEntity blockEntity = getAdjacentBlockEntity(direction);
+            if (blockEntity == null || blockEntity instanceof DeliveryTableBlockEntity)
+                continue;
+
+            @Nullable IItemHandler source = getItemHandler(blockEntity, direction);
+            if (source == null)
+                continue;
+
+            for (int r = 0; r < matcher.getRequestCount(); r++) {
+                if (missing[r] > 0)
+                    missing[r] -= pullRequestedItem(source, matcher, r, missing[r]);
             }
         }
     }
 
+    private int pullRequestedItem(IItemHandler source, RequestedItemsMatcher matcher, int requestIndex, int amount) {
+        int pulled = 0;
+        for (int slot = 0; slot < source.getSlots() && pulled < amount; slot++) {
+            if (!matcher.matches(requestIndex, source.getStackInSlot(slot)))
+                continue;
+
+            ItemStack extracted = source.extractItem(slot, amount - pulled, true);
+            int fits = extracted.getCount() - insertIntoInputSlots(extracted, true).getCount();
+            if (fits <= 0)
+                continue;
+
+            ItemStack moved = source.extractItem(slot, fits, false);
+            ItemStack remainder = insertIntoInputSlots(moved, false);
+            pulled += moved.getCount() - remainder.getCount();
+            if (!remainder.isEmpty())
+                source.insertItem(slot, remainder, false);
+        }
+        return pulled;
+    }
+
+    /**
+     * Inserts the stack to input slots. Slots with items are filled first, same as {@link ItemHandlerHelper#insertItemStacked}.
+     * @return remainder that did not fit.
+     */
+    private ItemStack insertIntoInputSlots(ItemStack stack, boolean simulate) {
+        for (int slot : INPUT_SLOTS) {
+            if (stack.isEmpty())
+                return stack;
+            if (!inventory.getStackInSlot(slot).isEmpty())
+                stack = inventory.insertItem(slot, stack, simulate);
+        }
+        for (int slot : INPUT_SLOTS) {
+            if (stack.isEmpty())
+                return stack;
+            if (inventory.getStackInSlot(slot).isEmpty())
+                stack = inventory.insertItem(slot, stack, simulate);
+        }
+        return stack;
+    }
+
+    /**
+     * Moves items from output slots to the inventory below the table.
+     */
+    protected void pushOutputItems() {
+        if (!hasItemsInOutput())
+            return;
+
+        @Nullable IItemHandler target = getAdjacentItemHandler(Direction.DOWN);
+        if (target == null)
+            return;
+
+        for (int slot : OUTPUT_SLOTS) {
+            ItemStack stack = inventory.getStackInSlot(slot);
+            if (stack.isEmpty())
+                continue;
+
+            ItemStack remainder = ItemHandlerHelper.insertItemStacked(target, stack.copy(), false);
+            int moved = stack.getCount() - remainder.getCount();
+            if (moved > 0)
+                inventory.extractItem(slot, moved, false);
+        }
+    }
+
+    protected @Nullable IItemHandler getAdjacentItemHandler(Direction direction) {
+        @Nullable BlockEntity blockEntity = getAdjacentBlockEntity(direction);
+        return blockEntity != null ? getItemHandler(blockEntity, direction) : null;
+    }
+
+    protected @Nullable BlockEntity getAdjacentBlockEntity(Direction direction) {
+        assert level != null;
+        BlockPos pos = getBlockPos().relative(direction);
+        return level.isLoaded(pos) ? level.getBlockEntity(pos) : null;
+    }
+
+    private static @Nullable IItemHandler getItemHandler(BlockEntity blockEntity, Direction direction) {
+        return blockEntity.getCapability(ForgeCapabilities.ITEM_HANDLER, direction.getOpposite()).resolve().orElse(null);
+    }
+
 
     // <Container>
 
@@ -412,14 +1142,14 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
                 if (slot == AGREEMENT_SLOT)
                     return stack.getItem() instanceof DeliveryAgreementItem;
                 else if (slot == BOX_SLOT)
-                    return Config.DELIVERIES_REQUIRE_BOXES.get() && stack.is(Wares.Tags.Items.DELIVERY_BOXES);
+                    return Config.settings().deliveriesRequireBoxes() && stack.is(Wares.Tags.Items.DELIVERY_BOXES);
                 return super.isItemValid(slot, stack);
             }
 
             @NotNull
             @Override
             public ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
-                if (slot == BOX_SLOT && !Config.DELIVERIES_REQUIRE_BOXES.get())
+                if (slot == BOX_SLOT && !Config.settings().deliveriesRequireBoxes())
                     return stack;
                 return super.insertItem(slot, stack, simulate);
             }
@@ -427,15 +1157,86 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
             @Override
             protected void onContentsChanged(int slot) {
                 if (slot == AGREEMENT_SLOT) {
-                    updateBlockStateIfNeeded();
+                    scheduleBlockStateUpdate();
+                    detachFromLinkedTable();
+                    releaseSharedAgreement();
                     agreement = DeliveryAgreement.fromItemStack(getItem(AGREEMENT_SLOT)).orElse(DeliveryAgreement.EMPTY);
+                    activeAgreement = getItem(AGREEMENT_SLOT).is(Wares.Items.DELIVERY_AGREEMENT.get());
                     resetProgress();
+                    wakeUpAdjacentTables();
+                }
+                else if (isOutputSlot(slot))
+                    updateFilledOutputSlot(slot);
+                changedSlotsForClients |= 1 << slot;
+                wakeUp();
+                onInventoryChanged();
+            }
+
+            @Override
+            protected void onLoad() {
+                for (int outputSlot : OUTPUT_SLOTS) {
+                    updateFilledOutputSlot(outputSlot);
                 }
-                setChanged();
             }
         };
     }
 
+    /**
+     * Chunk is marked as changed right away, but neighbors (comparators) are updated on the next tick.
+     * So inserting or extracting a lot of items in one tick results in one update.
+     */
+    protected void onInventoryChanged() {
+        if (level != null && !level.isClientSide) {
+            level.blockEntityChanged(worldPosition);
+            neighborsUpdatePending = true;
+        }
+    }
+
+    protected void updateFilledOutputSlot(int slot) {
+        int bit = 1 << (slot - OUTPUT_SLOTS[0]);
+        if (inventory.getStackInSlot(slot).isEmpty())
+            filledOutputSlots &= ~bit;
+        else
+            filledOutputSlots |= bit;
+    }
+
+    public static boolean isOutputSlot(int slot) {
+        return slot >= OUTPUT_SLOTS[0] && slot <= OUTPUT_SLOTS[OUTPUT_SLOTS.length - 1];
+    }
+
+    public boolean hasItemsInOutput() {
+        return filledOutputSlots != 0;
+    }
+
+    protected @NotNull ItemStackHandler createAgreementQueue() {
+        return new ItemStackHandler(AGREEMENT_QUEUE_SIZE) {
+            @Override
+            public boolean isItemValid(int slot, @NotNull ItemStack stack) {
+                return stack.is(Wares.Items.DELIVERY_AGREEMENT.get());
+            }
+
+            @Override
+            public int getSlotLimit(int slot) {
+                return 1;
+            }
+
+            @Override
+            protected void onContentsChanged(int slot) {
+                wakeUp();
+                onInventoryChanged();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    protected LazyOptional<IItemHandler>[] createInventoryHandlers() {
+        return new LazyOptional[] {
+                LazyOptional.of(() -> new DeliveryTableItemHandler(this, Direction.DOWN)),
+                LazyOptional.of(() -> new DeliveryTableItemHandler(this, Direction.UP)),
+                LazyOptional.of(() -> new DeliveryTableItemHandler(this, Direction.NORTH))
+        };
+    }
+
     public IItemHandlerModifiable getInventory() {
         return inventory;
     }
@@ -470,6 +1271,13 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
         return inventory.getStackInSlot(slot);
     }
 
+    /**
+     * @return true if table has an agreement that can be worked on. Cheap - can be checked often.
+     */
+    public boolean hasActiveAgreement() {
+        return activeAgreement;
+    }
+
     public ItemStack getAgreementItem() {
         return getItem(AGREEMENT_SLOT);
     }
@@ -482,6 +1290,30 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
         setItem(AGREEMENT_SLOT, stack);
     }
 
+    public IItemHandlerModifiable getAgreementQueue() {
+        return agreementQueue;
+    }
+
+    public boolean hasQueuedAgreements() {
+        for (int i = 0; i < agreementQueue.getSlots(); i++) {
+            if (!agreementQueue.getStackInSlot(i).isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the first agreement from the queue.
+     * @return removed agreement, or empty stack if queue is empty.
+     */
+    protected @NotNull ItemStack takeQueuedAgreement() {
+        for (int i = 0; i < agreementQueue.getSlots(); i++) {
+            if (!agreementQueue.getStackInSlot(i).isEmpty())
+                return agreementQueue.extractItem(i, 1, false);
+        }
+        return ItemStack.EMPTY;
+    }
+
     @Override
     public @NotNull ItemStack removeItem(int slot, int amount) {
         return inventory.extractItem(slot, amount, false);
@@ -503,8 +1335,8 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     public int @NotNull [] getSlotsForFace(Direction side) {
         return switch (side) {
             case DOWN -> OUTPUT_SLOTS;
-            case UP -> Config.DELIVERIES_REQUIRE_BOXES.get() ? AGREEMENT_PLUS_PACKAGES_SLOTS : AGREEMENT_SLOTS;
-            case NORTH, SOUTH, WEST, EAST -> Config.TABLE_OUTPUTS_FROM_SIDES.get() ? INPUT_PLUS_OUTPUT_SLOTS : INPUT_SLOTS;
+            case UP -> Config.settings().deliveriesRequireBoxes() ? AGREEMENT_PLUS_PACKAGES_SLOTS : AGREEMENT_SLOTS;
+            case NORTH, SOUTH, WEST, EAST -> Config.settings().tableOutputsFromSides() ? INPUT_PLUS_OUTPUT_SLOTS : INPUT_SLOTS;
         };
     }
 
@@ -559,19 +1391,55 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     public void load(@NotNull CompoundTag tag) {
         super.load(tag);
         this.inventory.deserializeNBT(tag.getCompound("Inventory"));
-        this.progress = tag.getInt("Progress");
+        this.deliveryStartTime = -1L;
+        this.pausedProgress = tag.getInt("Progress");
         this.deliveringManually = tag.getBoolean("DeliveringManually");
+        this.packagerId = tag.hasUUID("Packager") ? tag.getUUID("Packager") : null;
+        this.pendingPackagerXp = tag.getInt("PendingPackagerXp");
+        this.packagerReportTime = -1L;
+        this.catchUpFromTime = tag.contains("LastGameTime") ? tag.getLong("LastGameTime") : -1L;
+        this.catchUpDeadline = -1L;
+
+        ListTag queueTag = tag.getList("AgreementQueue", Tag.TAG_COMPOUND);
+        for (int i = 0; i < agreementQueue.getSlots(); i++) {
+            agreementQueue.setStackInSlot(i, i < queueTag.size() ? ItemStack.of(queueTag.getCompound(i)) : ItemStack.EMPTY);
+        }
+
+        this.sharedAgreementKey = tag.hasUUID("SharedAgreement") ? tag.getUUID("SharedAgreement") : null;
+        this.linkedTablePos = tag.contains("LinkedTable", Tag.TAG_LONG) ? BlockPos.of(tag.getLong("LinkedTable")) : null;
+        this.linkedAgreementItem = isLinked() ? ItemStack.of(tag.getCompound("LinkedAgreement")) : ItemStack.EMPTY;
 
-        agreement = DeliveryAgreement.fromItemStack(getAgreementItem()).orElse(DeliveryAgreement.EMPTY);
-        updateBlockStateIfNeeded();
+        agreement = DeliveryAgreement.fromItemStack(isLinked() ? linkedAgreementItem : getAgreementItem()).orElse(DeliveryAgreement.EMPTY);
+        activeAgreement = isLinked() || getAgreementItem().is(Wares.Items.DELIVERY_AGREEMENT.get());
+        scheduleBlockStateUpdate();
     }
 
     @Override
     protected void saveAdditional(@NotNull CompoundTag tag) {
         super.saveAdditional(tag);
         tag.put("Inventory", this.inventory.serializeNBT());
-        tag.putInt("Progress", progress);
+        tag.putInt("Progress", getProgress());
         tag.putBoolean("DeliveringManually", deliveringManually);
+        if (packagerId != null)
+            tag.putUUID("Packager", packagerId);
+        if (pendingPackagerXp > 0)
+            tag.putInt("PendingPackagerXp", pendingPackagerXp);
+        if (level != null)
+            // Catch up that is still waiting for the packager is kept:
+            tag.putLong("LastGameTime", catchUpFromTime >= 0 ? catchUpFromTime : level.getGameTime());
+        if (hasQueuedAgreements()) {
+            ListTag queueTag = new ListTag();
+            for (int i = 0; i < agreementQueue.getSlots(); i++) {
+                queueTag.add(agreementQueue.getStackInSlot(i).save(new CompoundTag()));
+            }
+            tag.put("AgreementQueue", queueTag);
+        }
+        if (sharedAgreementKey != null)
+            tag.putUUID("SharedAgreement", sharedAgreementKey);
+        if (linkedTablePos != null) {
+            tag.putLong("LinkedTable", linkedTablePos.asLong());
+            tag.put("LinkedAgreement", linkedAgreementItem.save(new CompoundTag()));
+        }
     }
 
     // <Updating>
@@ -589,19 +1457,71 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
         }
     }
 
-    protected void updateBlockStateIfNeeded() {
-        AgreementType type = AgreementType.fromItemStack(getAgreementItem());
+    /**
+     * Agreement slot can change several times in one tick (automation) - block state is updated once, on the next tick.
+     */
+    protected void scheduleBlockStateUpdate() {
+        agreementType = AgreementType.fromItemStack(getAgreementItem());
+        blockStateUpdatePending = true;
+    }
+
+    protected void updateBlockState() {
         BlockState currentBlockState = getBlockState();
-        if (level != null && currentBlockState.getValue(DeliveryTableBlock.AGREEMENT) != type)
-            level.setBlockAndUpdate(worldPosition, currentBlockState.setValue(DeliveryTableBlock.AGREEMENT, type));
+        if (level != null && currentBlockState.getValue(DeliveryTableBlock.AGREEMENT) != agreementType)
+            // Agreement state is only visual - neighbors do not need to be updated.
+            level.setBlock(worldPosition, currentBlockState.setValue(DeliveryTableBlock.AGREEMENT, agreementType), Block.UPDATE_CLIENTS);
     }
 
 
-    protected void sendUpdateToNearbyClients() {
-        assert level != null;
-        List<ServerPlayer> nearbyPlayers = level.getEntitiesOfClass(ServerPlayer.class, new AABB(getBlockPos()).inflate(32));
-        for (ServerPlayer player : nearbyPlayers) {
-            player.connection.send(this.getUpdatePacket());
+    /**
+     * Sends changes since the last update to the clients tracking the chunk of this table.
+     * Full block entity data is only sent when the chunk is sent to the client.
+     */
+    protected void sendUpdateToTrackingClients() {
+        if (level == null || level.isClientSide)
+            return;
+
+        int changedSlots = changedSlotsForClients;
+        int[] slots = new int[Integer.bitCount(changedSlots)];
+        ItemStack[] stacks = new ItemStack[slots.length];
+        int i = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if ((changedSlots & (1 << slot)) != 0) {
+                slots[i] = slot;
+                stacks[i] = inventory.getStackInSlot(slot).copy();
+                i++;
+            }
+        }
+
+        // Delivered count is included in agreement stack if it was changed.
+        int delivered = deliveredChangedForClients && (changedSlots & (1 << AGREEMENT_SLOT)) == 0 ? agreement.getDelivered() : -1;
+
+        changedSlotsForClients = 0;
+        deliveredChangedForClients = false;
+
+        Packets.sendToClientsTrackingChunk(level.getChunkAt(getBlockPos()),
+                new ClientboundDeliveryTableUpdatePacket(getBlockPos(), delivered, getProgress(), isDelivering(), slots, stacks));
+    }
+
+    public void handleUpdatePacket(ClientboundDeliveryTableUpdatePacket packet) {
+        for (int i = 0; i < packet.changedSlots().length; i++) {
+            int slot = packet.changedSlots()[i];
+            if (slot >= 0 && slot < SLOTS)
+                inventory.setStackInSlot(slot, packet.stacks()[i]);
+        }
+
+        if (packet.delivered() >= 0 && !agreement.isEmpty()) {
+            agreement.setDelivered(packet.delivered());
+            agreement.updateItemStack(getAgreementItem());
+        }
+
+        if (packet.delivering()) {
+            deliveryStartTime = level != null ? level.getGameTime() - packet.progress() : 0;
+            pausedProgress = 0;
+        }
+        else {
+            deliveryStartTime = -1L;
+            pausedProgress = packet.progress();
         }
     }
 
@@ -630,7 +1550,7 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     @Override
     public void invalidateCaps() {
         super.invalidateCaps();
-        for (LazyOptional<IItemHandlerModifiable> inventoryHandler : inventoryHandlers) {
+        for (LazyOptional<IItemHandler> inventoryHandler : inventoryHandlers) {
             inventoryHandler.invalidate();
         }
     }
@@ -638,6 +1558,6 @@ public class DeliveryTableBlockEntity extends BaseContainerBlockEntity implement
     @Override
     public void reviveCaps() {
         super.reviveCaps();
-        inventoryHandlers = net.minecraftforge.items.wrapper.SidedInvWrapper.create(this, Direction.DOWN, Direction.UP, Direction.NORTH);
+        inventoryHandlers = createInventoryHandlers();
     }
 }
@@ -0,0 +1,110 @@
+package io.github.mortuusars.wares.block.entity;
+
+import io.github.mortuusars.wares.config.Config;
+import io.github.mortuusars.wares.config.WaresSettings;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Item handler that is exposed to automation on one face of the Delivery Table. Works with table inventory directly.
+ * <br><br>
+ * Slots of the face are resolved with {@link DeliveryTableBlockEntity#getSlotsForFace} once per config snapshot.
+ * Only output slots can be extracted from. Extraction returns right away if there is nothing in the outputs.
+ * Top face also exposes the agreement queue slots after its own slots - agreements that do not fit
+ * into the occupied agreement slot are inserted into the queue. Queued agreements can be extracted back.
+ */
+public class DeliveryTableItemHandler implements IItemHandler {
+    private final DeliveryTableBlockEntity table;
+    private final Direction face;
+
+    private @Nullable WaresSettings slotsSettings;
+    private int[] slots = new int[0];
+
+    public DeliveryTableItemHandler(DeliveryTableBlockEntity table, Direction face) {
+        this.table = table;
+        this.face = face;
+    }
+
+    private int getQueueSlots() {
+        return face == Direction.UP ? table.getAgreementQueue().getSlots() : 0;
+    }
+
+    private int[] getFaceSlots() {
+        WaresSettings settings = Config.settings();
+        if (settings != slotsSettings) {
+            slots = table.getSlotsForFace(face);
+            slotsSettings = settings;
+        }
+        return slots;
+    }
+
+    @Override
+    public int getSlots() {
+        return getFaceSlots().length + getQueueSlots();
+    }
+
+    @Override
+    public @NotNull ItemStack getStackInSlot(int slot) {
+        int[] faceSlots = getFaceSlots();
+        if (slot < 0 || slot >= faceSlots.length + getQueueSlots())
+            return ItemStack.EMPTY;
+        if (slot >= faceSlots.length)
+            return table.getAgreementQueue().getStackInSlot(slot - faceSlots.length);
+        return table.inventory.getStackInSlot(faceSlots[slot]);
+    }
+
+    @Override
+    public @NotNull ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate) {
+        int[] faceSlots = getFaceSlots();
+        if (stack.isEmpty() || slot < 0 || slot >= faceSlots.length + getQueueSlots())
+            return stack;
+
+        if (slot >= faceSlots.length)
+            return table.getAgreementQueue().insertItem(slot - faceSlots.length, stack, simulate);
+
+        int tableSlot = faceSlots[slot];
+        if (!table.canPlaceItem(tableSlot, stack))
+            return stack;
+
+        return table.inventory.insertItem(tableSlot, stack, simulate);
+    }
+
+    @Override
+    public @NotNull ItemStack extractItem(int slot, int amount, boolean simulate) {
+        if (amount <= 0)
+            return ItemStack.EMPTY;
+
+        int[] faceSlots = getFaceSlots();
+        if (slot >= faceSlots.length && slot < faceSlots.length + getQueueSlots())
+            return table.getAgreementQueue().extractItem(slot - faceSlots.length, amount, simulate);
+
+        if (!table.hasItemsInOutput() || slot < 0 || slot >= faceSlots.length)
+            return ItemStack.EMPTY;
+
+        int tableSlot = faceSlots[slot];
+        if (!DeliveryTableBlockEntity.isOutputSlot(tableSlot))
+            return ItemStack.EMPTY;
+
+        return table.inventory.extractItem(tableSlot, amount, simulate);
+    }
+
+    @Override
+    public int getSlotLimit(int slot) {
+        int[] faceSlots = getFaceSlots();
+        if (slot >= faceSlots.length && slot < faceSlots.length + getQueueSlots())
+            return table.getAgreementQueue().getSlotLimit(slot - faceSlots.length);
+        return slot >= 0 && slot < faceSlots.length ? table.inventory.getSlotLimit(faceSlots[slot]) : 0;
+    }
+
+    @Override
+    public boolean isItemValid(int slot, @NotNull ItemStack stack) {
+        int[] faceSlots = getFaceSlots();
+        if (slot >= faceSlots.length && slot < faceSlots.length + getQueueSlots())
+            return table.getAgreementQueue().isItemValid(slot - faceSlots.length, stack);
+        return slot >= 0 && slot < faceSlots.length && table.canPlaceItem(faceSlots[slot], stack)
+                && table.inventory.isItemValid(faceSlots[slot], stack);
+    }
+}
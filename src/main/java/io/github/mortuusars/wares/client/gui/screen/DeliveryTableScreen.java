@@ -21,6 +21,10 @@ import net.minecraft.world.inventory.Slot;
 
 public class DeliveryTableScreen extends AbstractContainerScreen<DeliveryTableMenu> {
     public static final ResourceLocation TEXTURE = Wares.resource("textures/gui/delivery_table.png");
+    public static final int MAIN_PANEL_WIDTH = 176;
+    public static final int QUEUE_PANEL_WIDTH = 32;
+    public static final int QUEUE_PANEL_HEIGHT = 86;
+    public static final int QUEUE_PANEL_Y = 9;
 
     private final Component manualDeliveryButtonTitle;
     private final MutableComponent manualDeliveryButtonTooltip;
@@ -45,10 +49,11 @@ public class DeliveryTableScreen extends AbstractContainerScreen<DeliveryTableMe
 
     @Override
     protected void init() {
-        super.init();
-        imageWidth = 176;
+        // Size should be set before super.init() - gui position is calculated from it.
+        imageWidth = MAIN_PANEL_WIDTH + QUEUE_PANEL_WIDTH;
         imageHeight = 172;
         inventoryLabelY = 79;
+        super.init();
 
         this.manualDeliveryButton = new ImageButton(getGuiLeft() + 74, getGuiTop() + 36, 28, 20,
                 176, 70, 20, TEXTURE, 256, 256,
@@ -84,13 +89,21 @@ public class DeliveryTableScreen extends AbstractContainerScreen<DeliveryTableMe
                 if (!boxSlot.hasItem() && isHovering(boxSlot.x, boxSlot.y, 18, 18, mouseX, mouseY))
                     graphics.renderTooltip(font, Component.translatable("gui.wares.delivery_table.no_packages.tooltip"), mouseX, mouseY);
             }
+
+            for (int i = menu.agreementQueueSlotsStart; i < menu.tableSlotsEnd; i++) {
+                Slot queueSlot = menu.slots.get(i);
+                if (!queueSlot.hasItem() && isHovering(queueSlot.x, queueSlot.y, 18, 18, mouseX, mouseY))
+                    graphics.renderTooltip(font, Component.translatable("gui.wares.delivery_table.agreement_queue.tooltip"), mouseX, mouseY);
+            }
         }
     }
 
     @Override
     protected void renderBg(GuiGraphics graphics, float partialTick, int mouseX, int mouseY) {
         RenderSystem.setShaderColor(1.0F, 1.0F, 1.0F, 1.0F);
-        graphics.blit(TEXTURE, this.leftPos, this.topPos, 0, 0, this.imageWidth, this.imageHeight);
+        graphics.blit(TEXTURE, this.leftPos, this.topPos, 0, 0, MAIN_PANEL_WIDTH, this.imageHeight);
+        // Agreement queue panel
+        graphics.blit(TEXTURE, leftPos + MAIN_PANEL_WIDTH, topPos + QUEUE_PANEL_Y, 208, 0, QUEUE_PANEL_WIDTH, QUEUE_PANEL_HEIGHT);
 
         // Agreement placeholder
         if (!menu.slots.get(DeliveryTableBlockEntity.AGREEMENT_SLOT).hasItem())
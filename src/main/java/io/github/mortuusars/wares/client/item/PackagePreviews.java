@@ -0,0 +1,51 @@
+package io.github.mortuusars.wares.client.item;
+
+import io.github.mortuusars.wares.network.Packets;
+import io.github.mortuusars.wares.network.packet.ServerboundPackagePreviewPacket;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contents of seeded loot table packages received from the server. Contents are requested once per package
+ * and kept in a bounded LRU cache - tooltips are built every frame.
+ */
+public class PackagePreviews {
+    private static final int MAX_SIZE = 64;
+    private static final Map<Key, List<ItemStack>> CONTENTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<ItemStack>> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    /**
+     * @return contents of the package or null if they are not yet received. Contents are requested from the server in this case.
+     */
+    public static synchronized @Nullable List<ItemStack> get(ResourceLocation lootTable, long lootSeed) {
+        Key key = new Key(lootTable, lootSeed);
+        @Nullable List<ItemStack> items = CONTENTS.get(key);
+        if (items != null)
+            return items.isEmpty() ? null : items;
+
+        // Empty list marks a request in flight. Server does not answer for packages that player cannot see -
+        // such packages are not requested again until the cache is cleared.
+        CONTENTS.put(key, List.of());
+        Packets.sendToServer(new ServerboundPackagePreviewPacket(lootTable, lootSeed));
+        return null;
+    }
+
+    public static synchronized void put(ResourceLocation lootTable, long lootSeed, List<ItemStack> items) {
+        CONTENTS.put(new Key(lootTable, lootSeed), items);
+    }
+
+    public static synchronized void clear() {
+        CONTENTS.clear();
+    }
+
+    private record Key(ResourceLocation lootTable, long lootSeed) { }
+}
@@ -0,0 +1,21 @@
+package io.github.mortuusars.wares.client.network;
+
+import io.github.mortuusars.wares.block.entity.DeliveryTableBlockEntity;
+import io.github.mortuusars.wares.client.item.PackagePreviews;
+import io.github.mortuusars.wares.network.packet.ClientboundDeliveryTableUpdatePacket;
+import io.github.mortuusars.wares.network.packet.ClientboundPackagePreviewPacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+
+public class ClientPacketsHandler {
+    public static void handleDeliveryTableUpdate(ClientboundDeliveryTableUpdatePacket packet) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level != null && level.isLoaded(packet.pos())
+                && level.getBlockEntity(packet.pos()) instanceof DeliveryTableBlockEntity deliveryTableBlockEntity)
+            deliveryTableBlockEntity.handleUpdatePacket(packet);
+    }
+
+    public static void handlePackagePreview(ClientboundPackagePreviewPacket packet) {
+        PackagePreviews.put(packet.lootTable(), packet.lootSeed(), packet.items());
+    }
+}
@@ -24,6 +24,10 @@ public class Config {
     public static final ForgeConfigSpec.IntValue DEFAULT_DELIVERY_TIME;
     public static final ForgeConfigSpec.BooleanValue DELIVERIES_REQUIRE_BOXES;
     public static final ForgeConfigSpec.BooleanValue TABLE_OUTPUTS_FROM_SIDES;
+    public static final ForgeConfigSpec.BooleanValue CATCH_UP_DELIVERIES;
+    public static final ForgeConfigSpec.BooleanValue TABLE_PULLS_AND_PUSHES_ITEMS;
+    public static final ForgeConfigSpec.BooleanValue ADJACENT_TABLES_SHARE_AGREEMENT;
+    public static final ForgeConfigSpec.BooleanValue COMPRESS_PACKAGE_CONTENTS;
 
     public static final ForgeConfigSpec.BooleanValue GENERATE_WAREHOUSES;
     public static final ForgeConfigSpec.IntValue WAREHOUSE_WEIGHT;
@@ -33,6 +37,11 @@ public class Config {
     public static final ForgeConfigSpec.BooleanValue AGREEMENT_CLOSE_WITH_RMB;
     public static final ForgeConfigSpec.BooleanValue AGREEMENT_APPEND_BUYER_INFO_TO_MESSAGE;
 
+    /**
+     * Snapshot of current common config values. Replaced with a new instance each time config is loaded or reloaded.
+     */
+    private static volatile WaresSettings settings;
+
     static {
         ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
 
@@ -94,6 +103,25 @@ public class Config {
                         "Default: false")
                 .define("TableOutputsFromSides", false);
 
+        CATCH_UP_DELIVERIES = builder
+                .comment("When Delivery Table is loaded, it will make deliveries that it would have made while its chunk was not loaded.",
+                        "Deliveries are limited by time passed, agreement expiry, items, boxes and space in the table - same as regular deliveries.",
+                        "If Packager is required - table should have a Packager assigned to it before being unloaded.",
+                        "Default: false")
+                .define("CatchUpDeliveriesAfterUnload", false);
+
+        TABLE_PULLS_AND_PUSHES_ITEMS = builder
+                .comment("Delivery Table will take requested items from adjacent inventories on its sides before a delivery starts,",
+                        "and will put delivered items into the inventory below it when delivery is completed.",
+                        "Hoppers or pipes are not needed for feeding the table in this case. Default: false")
+                .define("TablePullsAndPushesItems", false);
+
+        ADJACENT_TABLES_SHARE_AGREEMENT = builder
+                .comment("Delivery Table without an agreement will work on the agreement of an adjacent table (on the same level).",
+                        "Each table uses its own inventory and Packager, and deliveries of all tables count towards the same agreement.",
+                        "Tables in a row can all work on the agreement of one table. Default: false")
+                .define("AdjacentTablesShareAgreement", false);
+
         builder.pop();
 
         builder.push("Structures");
@@ -113,6 +141,11 @@ public class Config {
                         "Useful when you want to keep custom item name, etc.")
                 .define("KeepNBTWhenOpeningAgreement", true);
 
+        COMPRESS_PACKAGE_CONTENTS = builder
+                .comment("Packages with items that have nbt tags (shulker boxes, enchanted items, etc.) will store their contents compressed.",
+                        "This keeps chunk and player data smaller, but contents of such packages cannot be read or edited with commands. Default: false")
+                .define("CompressPackageContents", false);
+
         WANDERING_TRADER_AGREEMENTS = builder
                 .comment("Wandering Trader will sell Sealed Delivery Agreements.")
                 .define("WanderingTraderSellsAgreements", true);
@@ -138,13 +171,29 @@ public class Config {
     }
 
     public static void onConfigReload(final ModConfigEvent.Reloading ignoredEvent) {
-        if (COMMON.isLoaded())
+        if (COMMON.isLoaded()) {
             validateConfig();
+            settings = WaresSettings.fromConfig();
+        }
     }
 
     public static void onConfigLoad(final ModConfigEvent.Loading ignoredEvent) {
-        if (COMMON.isLoaded())
+        if (COMMON.isLoaded()) {
             validateConfig();
+            settings = WaresSettings.fromConfig();
+        }
+    }
+
+    /**
+     * @return snapshot of current common config values. Should be preferred over reading config values directly on hot paths.
+     */
+    public static WaresSettings settings() {
+        WaresSettings current = settings;
+        if (current == null) {
+            current = WaresSettings.fromConfig();
+            settings = current;
+        }
+        return current;
     }
 
     public static void validateConfig() {
@@ -161,11 +210,11 @@ public class Config {
     }
 
     public static int getBatchSizeForLevel(final int level) {
-        return BATCH_SIZE_PER_LEVEL.get().get(level - 1);
+        return settings().batchSizeForLevel(level);
     }
 
     public static int getMaxXpPerLevel(final int level) {
-        return PACKAGER_XP_PER_LEVEL.get().get(level);
+        return settings().maxXpPerLevel(level);
     }
 
     public static void init() {
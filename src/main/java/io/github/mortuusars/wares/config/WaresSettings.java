@@ -0,0 +1,54 @@
+package io.github.mortuusars.wares.config;
+
+/**
+ * Immutable snapshot of common config values that are read on hot paths (delivery table ticking, hopper queries, etc.).
+ * Built each time config is loaded or reloaded and published through {@link Config#settings()}.
+ * New snapshot instance means that config was changed.
+ * <br><br>
+ * Arrays should not be modified.
+ */
+public record WaresSettings(boolean packagerRequired,
+                            boolean packagerShouldBeWorking,
+                            boolean manualDeliveryAllowed,
+                            float manualDeliveryTimeModifier,
+                            int[] batchSizePerLevel,
+                            int[] packagerXpPerLevel,
+                            int defaultDeliveryTime,
+                            boolean deliveriesRequireBoxes,
+                            boolean tableOutputsFromSides,
+                            boolean catchUpDeliveries,
+                            boolean tablePullsAndPushesItems,
+                            boolean adjacentTablesShareAgreement,
+                            boolean compressPackageContents) {
+
+    public static WaresSettings fromConfig() {
+        return new WaresSettings(
+                Config.PACKAGER_REQUIRED.get(),
+                Config.PACKAGER_SHOULD_BE_WORKING.get(),
+                Config.MANUAL_DELIVERY_ALLOWED.get(),
+                Config.MANUAL_DELIVERY_TIME_MODIFIER.get().floatValue(),
+                Config.BATCH_SIZE_PER_LEVEL.get().stream().mapToInt(Integer::intValue).toArray(),
+                Config.PACKAGER_XP_PER_LEVEL.get().stream().mapToInt(Integer::intValue).toArray(),
+                Config.DEFAULT_DELIVERY_TIME.get(),
+                Config.DELIVERIES_REQUIRE_BOXES.get(),
+                Config.TABLE_OUTPUTS_FROM_SIDES.get(),
+                Config.CATCH_UP_DELIVERIES.get(),
+                Config.TABLE_PULLS_AND_PUSHES_ITEMS.get(),
+                Config.ADJACENT_TABLES_SHARE_AGREEMENT.get(),
+                Config.COMPRESS_PACKAGE_CONTENTS.get());
+    }
+
+    /**
+     * @param level Villager level (1-5).
+     */
+    public int batchSizeForLevel(int level) {
+        return batchSizePerLevel[level - 1];
+    }
+
+    /**
+     * @param level Villager level (1-4). XP required to reach next level.
+     */
+    public int maxXpPerLevel(int level) {
+        return packagerXpPerLevel[level];
+    }
+}
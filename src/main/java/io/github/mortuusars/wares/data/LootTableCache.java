@@ -0,0 +1,72 @@
+package io.github.mortuusars.wares.data;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.storage.loot.LootDataManager;
+import net.minecraft.world.level.storage.loot.LootParams;
+import net.minecraft.world.level.storage.loot.LootTable;
+import net.minecraft.world.level.storage.loot.parameters.LootContextParamSets;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches resolved loot tables used by sealed agreements and packages.
+ * Loot data manager is replaced when datapacks are reloaded - cache is cleared when it notices a different manager.
+ * Cache is cleared when server stops and level params are released when their level is unloaded.
+ */
+public class LootTableCache {
+    private static final Map<ResourceLocation, LootTable> TABLES = new HashMap<>();
+    private static @Nullable LootDataManager lootDataOwner;
+
+    private static @Nullable ServerLevel emptyParamsLevel;
+    private static @Nullable LootParams emptyParams;
+
+    public static synchronized LootTable get(ServerLevel level, ResourceLocation location) {
+        LootDataManager lootData = level.getServer().getLootData();
+        if (lootData != lootDataOwner) {
+            TABLES.clear();
+            lootDataOwner = lootData;
+        }
+
+        return TABLES.computeIfAbsent(location, lootData::getLootTable);
+    }
+
+    /**
+     * Rolls the loot table with empty loot params. Params are reused for the same level - they do not hold any state.
+     */
+    public static List<ItemStack> getRandomItems(ServerLevel level, ResourceLocation location) {
+        return get(level, location).getRandomItems(getEmptyParams(level));
+    }
+
+    private static synchronized LootParams getEmptyParams(ServerLevel level) {
+        if (emptyParams == null || emptyParamsLevel != level) {
+            emptyParams = new LootParams.Builder(level).create(LootContextParamSets.EMPTY);
+            emptyParamsLevel = level;
+        }
+        return emptyParams;
+    }
+
+    /**
+     * Releases cached params of the level, so that unloaded level is not kept in memory.
+     */
+    public static synchronized void remove(ServerLevel level) {
+        if (emptyParamsLevel == level) {
+            emptyParams = null;
+            emptyParamsLevel = null;
+        }
+    }
+
+    /**
+     * Should be called when server is stopped - cache holds the loot data and a level of the server.
+     */
+    public static synchronized void clear() {
+        TABLES.clear();
+        lootDataOwner = null;
+        emptyParams = null;
+        emptyParamsLevel = null;
+    }
+}
@@ -5,11 +5,15 @@ import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.config.Config;
+import net.minecraft.nbt.ByteArrayTag;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.storage.loot.LootParams;
 import net.minecraft.world.level.storage.loot.LootTable;
@@ -18,17 +22,28 @@ import net.minecraft.world.level.storage.loot.parameters.LootContextParams;
 import net.minecraft.world.phys.Vec3;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * @param lootSeed Seed used to roll the loot table. Contents of a seeded loot package are the same each time it is rolled.
+ *                 0 - not seeded, loot table is rolled randomly when package is opened.
+ */
 @SuppressWarnings("unused")
-public record Package(Either<ResourceLocation, List<ItemStack>> items, String sender) {
+public record Package(Either<ResourceLocation, List<ItemStack>> items, String sender, long lootSeed) {
     public static final Codec<Package> CODEC = RecordCodecBuilder.create(instance -> instance.group(
             Codec.either(ResourceLocation.CODEC, Codec.list(ItemStack.CODEC)).optionalFieldOf("packedItems", Either.right(List.of(ItemStack.EMPTY))).forGetter(Package::items),
-            Codec.STRING.optionalFieldOf("sender", "").forGetter(Package::sender))
+            Codec.STRING.optionalFieldOf("sender", "").forGetter(Package::sender),
+            Codec.LONG.optionalFieldOf("lootSeed", 0L).forGetter(Package::lootSeed))
             .apply(instance, Package::new));
 
+    private static final String PACKED_ITEMS_KEY = "packedItems";
+    private static final String COMPRESSED_ITEMS_KEY = "compressedItems";
+
     public static final ResourceLocation DEFAULT_LOOT_TABLE = Wares.resource("gameplay/empty_package");
     public static final Package DEFAULT = new Package(Either.left(DEFAULT_LOOT_TABLE));
 
@@ -36,10 +51,48 @@ public record Package(Either<ResourceLocation, List<ItemStack>> items, String se
         this(items, "");
     }
 
+    public Package(Either<ResourceLocation, List<ItemStack>> items, String sender) {
+        this(items, sender, 0L);
+    }
+
+    public boolean isLootTable() {
+        return items.left().isPresent();
+    }
+
+    /**
+     * @return package with a random loot seed if this is not yet seeded loot table package. Same package otherwise.
+     */
+    public Package withLootSeed(RandomSource random) {
+        if (!isLootTable() || lootSeed != 0L)
+            return this;
+
+        return new Package(items, sender, newLootSeed(random));
+    }
+
+    public static long newLootSeed(RandomSource random) {
+        long seed = random.nextLong();
+        return seed != 0L ? seed : 1L;
+    }
+
     public void toTag(CompoundTag tag) {
+        toTag(tag, Config.settings().compressPackageContents());
+    }
+
+    /**
+     * @param compress Packed items that have nbt tags will be stored as compressed byte array.
+     */
+    public void toTag(CompoundTag tag, boolean compress) {
         CODEC.encodeStart(NbtOps.INSTANCE, this)
                 .resultOrPartial(Wares.LOGGER::error)
-                .ifPresent(resultTag -> tag.merge((CompoundTag) resultTag));
+                .ifPresent(resultTag -> {
+                    CompoundTag packageTag = (CompoundTag) resultTag;
+                    if (compress && items.right().map(stacks -> stacks.stream().anyMatch(ItemStack::hasTag)).orElse(false))
+                        compressItems(packageTag);
+
+                    tag.remove(PACKED_ITEMS_KEY);
+                    tag.remove(COMPRESSED_ITEMS_KEY);
+                    tag.merge(packageTag);
+                });
     }
 
     public void toItemStack(ItemStack stack) {
@@ -47,9 +100,15 @@ public record Package(Either<ResourceLocation, List<ItemStack>> items, String se
     }
 
     public static Optional<Package> fromTag(@NotNull CompoundTag tag) {
-        if (!tag.contains("packedItems") && tag.contains("BlockEntityTag", Tag.TAG_COMPOUND))
+        if (!tag.contains(PACKED_ITEMS_KEY) && !tag.contains(COMPRESSED_ITEMS_KEY) && tag.contains("BlockEntityTag", Tag.TAG_COMPOUND))
             tag = tag.getCompound("BlockEntityTag");
 
+        if (tag.contains(COMPRESSED_ITEMS_KEY, Tag.TAG_BYTE_ARRAY)) {
+            tag = tag.copy();
+            if (!decompressItems(tag))
+                return Optional.empty();
+        }
+
         return CODEC.decode(NbtOps.INSTANCE, tag)
                 .resultOrPartial(Wares.LOGGER::error)
                 .map(Pair::getFirst);
@@ -59,16 +118,42 @@ public record Package(Either<ResourceLocation, List<ItemStack>> items, String se
         return stack.getTag() != null ? fromTag(stack.getTag()) : Optional.empty();
     }
 
+    private static void compressItems(CompoundTag packageTag) {
+        CompoundTag itemsTag = new CompoundTag();
+        itemsTag.put("Items", packageTag.get(PACKED_ITEMS_KEY));
+
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            NbtIo.writeCompressed(itemsTag, outputStream);
+            packageTag.remove(PACKED_ITEMS_KEY);
+            packageTag.put(COMPRESSED_ITEMS_KEY, new ByteArrayTag(outputStream.toByteArray()));
+        } catch (IOException e) {
+            Wares.LOGGER.error("Failed to compress package contents. Items will be stored uncompressed: " + e);
+        }
+    }
+
+    private static boolean decompressItems(CompoundTag packageTag) {
+        try {
+            CompoundTag itemsTag = NbtIo.readCompressed(new ByteArrayInputStream(packageTag.getByteArray(COMPRESSED_ITEMS_KEY)));
+            packageTag.remove(COMPRESSED_ITEMS_KEY);
+            packageTag.put(PACKED_ITEMS_KEY, itemsTag.getList("Items", Tag.TAG_COMPOUND));
+            return true;
+        } catch (IOException e) {
+            Wares.LOGGER.error("Failed to decompress package contents: " + e);
+            return false;
+        }
+    }
+
     public List<ItemStack> getItems(ServerLevel level, Vec3 position) {
-        return this.items.map(lootTable -> fromLootTable(level, position, lootTable), itemsList -> fromItemsList(level, position, itemsList));
+        return this.items.map(lootTable -> fromLootTable(level, position, lootTable, lootSeed), itemsList -> fromItemsList(level, position, itemsList));
     }
 
     public static List<ItemStack> getDefaultItems(ServerLevel level, Vec3 position) {
         return unpackLootTable(level, position, DEFAULT_LOOT_TABLE);
     }
 
-    private static List<ItemStack> fromLootTable(ServerLevel level, Vec3 position, ResourceLocation table) {
-        List<ItemStack> items = unpackLootTable(level, position, table);
+    private static List<ItemStack> fromLootTable(ServerLevel level, Vec3 position, ResourceLocation table, long seed) {
+        List<ItemStack> items = seed != 0L ? unpackLootTable(level, position, table, seed) : unpackLootTable(level, position, table);
         return items.size() == 0 ? getDefaultItems(level, position) : items;
     }
 
@@ -78,7 +163,16 @@ public record Package(Either<ResourceLocation, List<ItemStack>> items, String se
     }
 
     private static List<ItemStack> unpackLootTable(ServerLevel level, Vec3 position, ResourceLocation tableLocation) {
-        LootTable lootTable = level.getServer().getLootData().getLootTable(tableLocation);
-        return lootTable.getRandomItems(new LootParams.Builder(level).withParameter(LootContextParams.ORIGIN, position).create(LootContextParamSets.CHEST));
+        LootTable lootTable = LootTableCache.get(level, tableLocation);
+        return lootTable.getRandomItems(createLootParams(level, position));
+    }
+
+    private static List<ItemStack> unpackLootTable(ServerLevel level, Vec3 position, ResourceLocation tableLocation, long seed) {
+        LootTable lootTable = LootTableCache.get(level, tableLocation);
+        return lootTable.getRandomItems(createLootParams(level, position), seed);
+    }
+
+    private static LootParams createLootParams(ServerLevel level, Vec3 position) {
+        return new LootParams.Builder(level).withParameter(LootContextParams.ORIGIN, position).create(LootContextParamSets.CHEST);
     }
 }
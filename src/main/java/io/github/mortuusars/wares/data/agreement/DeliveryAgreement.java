@@ -91,6 +91,11 @@ public class DeliveryAgreement {
         if (itemStack.isEmpty() || itemStack.getTag() == null || itemStack.getTag().isEmpty())
             return Optional.empty();
 
+        DeliveryAgreement read = DeliveryAgreementSerializer.read(itemStack.getTag());
+        if (read != null)
+            return Optional.of(read);
+
+        // Older or unknown layout:
         try {
             DataResult<Pair<DeliveryAgreement, Tag>> result = CODEC.decode(NbtOps.INSTANCE, itemStack.getTag());
             DeliveryAgreement agreement = result.getOrThrow(false, Wares.LOGGER::error).getFirst();
@@ -103,10 +108,7 @@ public class DeliveryAgreement {
 
     public boolean toItemStack(ItemStack stack) {
         try {
-            CompoundTag tag = stack.getOrCreateTag();
-            DataResult<Tag> result = CODEC.encodeStart(NbtOps.INSTANCE, this);
-            Tag encodedTag = result.getOrThrow(false, Wares.LOGGER::error);
-            tag.merge((CompoundTag) encodedTag);
+            DeliveryAgreementSerializer.write(this, stack.getOrCreateTag());
             return true;
         } catch (Exception e) {
             Wares.LOGGER.error("Failed to encode Agreement to item :\n" + e);
@@ -114,6 +116,19 @@ public class DeliveryAgreement {
         }
     }
 
+    /**
+     * Writes only delivered count and completed/expired state to the stack, if the rest of the agreement is already there.
+     * Otherwise, writes the whole agreement.
+     */
+    public boolean updateItemStack(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (tag == null || !DeliveryAgreementSerializer.canWriteProgress(tag))
+            return toItemStack(stack);
+
+        DeliveryAgreementSerializer.writeProgress(this, tag);
+        return true;
+    }
+
     public @NotNull String getId() {
         return this.id;
     }
@@ -150,7 +165,7 @@ public class DeliveryAgreement {
     }
     public int getDeliveryTime() { return deliveryTime; }
     public int getDeliveryTimeOrDefault() {
-        return deliveryTime > 0 ? deliveryTime : Config.DEFAULT_DELIVERY_TIME.get();
+        return deliveryTime > 0 ? deliveryTime : Config.settings().defaultDeliveryTime();
     }
     public long getExpireTimestamp() {
         return expireTimestamp;
@@ -183,7 +198,11 @@ public class DeliveryAgreement {
     }
 
     public void onDeliver() {
-        addDelivered(1);
+        onDeliver(1);
+    }
+
+    public void onDeliver(int batches) {
+        addDelivered(batches);
 
         if (isCompleted())
             complete();
@@ -0,0 +1,304 @@
+package io.github.mortuusars.wares.data.agreement;
+
+import com.mojang.datafixers.util.Either;
+import io.github.mortuusars.wares.data.agreement.component.CompoundTagCompareBehavior;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads and writes {@link DeliveryAgreement} directly from/to CompoundTag, without going through {@link DeliveryAgreement#CODEC}.
+ * <br><br>
+ * Produces the same layout as the codec (including omitting default values), so agreements written by the serializer
+ * stack and compare equal with the ones encoded by the codec. Format version field is only written for versions other than the default -
+ * tags with an unknown format version, or with anything unexpected in them, are left for the codec to decode.
+ */
+public class DeliveryAgreementSerializer {
+    public static final String FORMAT_VERSION_KEY = "formatVersion";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final Component EMPTY_COMPONENT = Component.empty();
+
+    public static boolean hasKnownFormat(CompoundTag tag) {
+        return !tag.contains(FORMAT_VERSION_KEY)
+                || (tag.contains(FORMAT_VERSION_KEY, Tag.TAG_ANY_NUMERIC) && tag.getInt(FORMAT_VERSION_KEY) == FORMAT_VERSION);
+    }
+
+    /**
+     * @return true if the tag holds a whole agreement in the known format, so that only progress can be written to it.
+     */
+    public static boolean canWriteProgress(CompoundTag tag) {
+        return hasKnownFormat(tag) && tag.contains("requestedItems", Tag.TAG_LIST) && tag.contains("paymentItems", Tag.TAG_LIST);
+    }
+
+    /**
+     * Writes all fields of the agreement to the tag. Fields with default values are not written (same as the codec).
+     */
+    public static void write(DeliveryAgreement agreement, CompoundTag tag) {
+        tag.remove(FORMAT_VERSION_KEY);
+
+        if (!agreement.getId().equals(""))
+            tag.putString("id", agreement.getId());
+        writeComponent(tag, "buyerName", agreement.getBuyerName());
+        writeComponent(tag, "buyerAddress", agreement.getBuyerAddress());
+        writeComponent(tag, "title", agreement.getTitle());
+        writeComponent(tag, "message", agreement.getMessage());
+        if (!agreement.getSeal().equals("default"))
+            tag.putString("seal", agreement.getSeal());
+
+        ListTag requested = new ListTag();
+        for (RequestedItem requestedItem : agreement.getRequested()) {
+            requested.add(writeRequestedItem(requestedItem));
+        }
+        tag.put("requestedItems", requested);
+
+        ListTag payment = new ListTag();
+        for (ItemStack stack : agreement.getPayment()) {
+            payment.add(writeItemStack(stack));
+        }
+        tag.put("paymentItems", payment);
+
+        if (agreement.getOrdered() != 0)
+            tag.putInt("ordered", agreement.getOrdered());
+        if (agreement.getExperience() != 0)
+            tag.putInt("experience", agreement.getExperience());
+        if (agreement.getDeliveryTime() != 0)
+            tag.putInt("deliveryTime", agreement.getDeliveryTime());
+        if (agreement.getExpireTimestamp() != -1L)
+            tag.putLong("expireTimestamp", agreement.getExpireTimestamp());
+
+        if (agreement.getDelivered() != 0)
+            tag.putInt("delivered", agreement.getDelivered());
+        if (agreement.getIsCompleted())
+            tag.putBoolean("isCompleted", true);
+        if (agreement.getIsExpired())
+            tag.putBoolean("isExpired", true);
+    }
+
+    /**
+     * Writes only the fields that can change after an agreement is created: delivered count, completed and expired flags.
+     * Tag should already contain the rest of the agreement in the known format (see {@link #canWriteProgress}).
+     * Default values are removed, and so is the format version written by earlier versions - same as in {@link #write}.
+     */
+    public static void writeProgress(DeliveryAgreement agreement, CompoundTag tag) {
+        tag.remove(FORMAT_VERSION_KEY);
+        writeOrRemove(tag, "delivered", agreement.getDelivered());
+        writeOrRemove(tag, "isCompleted", agreement.getIsCompleted());
+        writeOrRemove(tag, "isExpired", agreement.getIsExpired());
+    }
+
+    private static void writeOrRemove(CompoundTag tag, String key, int value) {
+        if (value != 0)
+            tag.putInt(key, value);
+        else
+            tag.remove(key);
+    }
+
+    private static void writeOrRemove(CompoundTag tag, String key, boolean value) {
+        if (value)
+            tag.putBoolean(key, true);
+        else
+            tag.remove(key);
+    }
+
+    /**
+     * @return decoded agreement or null if tag is not in the known format or cannot be read directly.
+     */
+    public static @Nullable DeliveryAgreement read(CompoundTag tag) {
+        if (!hasKnownFormat(tag))
+            return null;
+
+        try {
+            String id = readString(tag, "id", "");
+            Component buyerName = readComponent(tag, "buyerName");
+            Component buyerAddress = readComponent(tag, "buyerAddress");
+            Component title = readComponent(tag, "title");
+            Component message = readComponent(tag, "message");
+            String seal = readString(tag, "seal", "default");
+            if (id == null || buyerName == null || buyerAddress == null || title == null || message == null || seal == null)
+                return null;
+
+            if (!tag.contains("requestedItems", Tag.TAG_LIST) || !tag.contains("paymentItems", Tag.TAG_LIST))
+                return null;
+
+            ListTag requestedTag = tag.getList("requestedItems", Tag.TAG_COMPOUND);
+            if (requestedTag.size() != listSize(tag, "requestedItems"))
+                return null;
+            List<RequestedItem> requested = new ArrayList<>(requestedTag.size());
+            for (int i = 0; i < requestedTag.size(); i++) {
+                RequestedItem requestedItem = readRequestedItem(requestedTag.getCompound(i));
+                if (requestedItem == null)
+                    return null;
+                requested.add(requestedItem);
+            }
+
+            ListTag paymentTag = tag.getList("paymentItems", Tag.TAG_COMPOUND);
+            if (paymentTag.size() != listSize(tag, "paymentItems"))
+                return null;
+            List<ItemStack> payment = new ArrayList<>(paymentTag.size());
+            for (int i = 0; i < paymentTag.size(); i++) {
+                ItemStack stack = readItemStack(paymentTag.getCompound(i));
+                if (stack == null)
+                    return null;
+                payment.add(stack);
+            }
+
+            if (!isNumericOrAbsent(tag, "ordered") || !isNumericOrAbsent(tag, "delivered") || !isNumericOrAbsent(tag, "experience")
+                    || !isNumericOrAbsent(tag, "deliveryTime") || !isNumericOrAbsent(tag, "expireTimestamp")
+                    || !isNumericOrAbsent(tag, "isCompleted") || !isNumericOrAbsent(tag, "isExpired"))
+                return null;
+
+            return new DeliveryAgreement(id, buyerName, buyerAddress, title, message, seal, requested, payment,
+                    tag.contains("ordered") ? tag.getInt("ordered") : 0,
+                    tag.contains("delivered") ? tag.getInt("delivered") : 0,
+                    tag.contains("experience") ? tag.getInt("experience") : 0,
+                    tag.contains("deliveryTime") ? tag.getInt("deliveryTime") : 0,
+                    tag.contains("expireTimestamp") ? tag.getLong("expireTimestamp") : -1L,
+                    tag.contains("isCompleted") && tag.getByte("isCompleted") != 0,
+                    tag.contains("isExpired") && tag.getByte("isExpired") != 0);
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Components are stored as json strings - same as ComponentCodec.
+
+    private static void writeComponent(CompoundTag tag, String key, Component component) {
+        if (!component.equals(EMPTY_COMPONENT))
+            tag.putString(key, Component.Serializer.toJson(component));
+    }
+
+    private static @Nullable Component readComponent(CompoundTag tag, String key) {
+        if (!tag.contains(key))
+            return Component.empty();
+        if (!tag.contains(key, Tag.TAG_STRING))
+            return null;
+        return Component.Serializer.fromJsonLenient(tag.getString(key));
+    }
+
+    private static @Nullable String readString(CompoundTag tag, String key, String defaultValue) {
+        if (!tag.contains(key))
+            return defaultValue;
+        return tag.contains(key, Tag.TAG_STRING) ? tag.getString(key) : null;
+    }
+
+    private static boolean isNumericOrAbsent(CompoundTag tag, String key) {
+        return !tag.contains(key) || tag.contains(key, Tag.TAG_ANY_NUMERIC);
+    }
+
+    private static int listSize(CompoundTag tag, String key) {
+        Tag list = tag.get(key);
+        return list instanceof ListTag listTag ? listTag.size() : -1;
+    }
+
+    private static CompoundTag writeRequestedItem(RequestedItem requestedItem) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("id", requestedItem.getTagOrItem().map(
+                itemTag -> "#" + itemTag.location(),
+                item -> Objects.requireNonNull(ForgeRegistries.ITEMS.getKey(item)).toString()));
+        if (requestedItem.getCount() != 1)
+            tag.putInt("Count", requestedItem.getCount());
+        if (requestedItem.getTag() != null)
+            tag.put("tag", requestedItem.getTag().copy());
+        if (requestedItem.getTagCompareBehavior() != CompoundTagCompareBehavior.WEAK)
+            tag.putString("TagMatching", requestedItem.getTagCompareBehavior().getSerializedName());
+        return tag;
+    }
+
+    private static @Nullable RequestedItem readRequestedItem(CompoundTag tag) {
+        if (!tag.contains("id", Tag.TAG_STRING))
+            return null;
+
+        String id = tag.getString("id");
+        Either<TagKey<Item>, Item> tagOrItem;
+        if (id.startsWith("#")) {
+            ResourceLocation location = ResourceLocation.tryParse(id.substring(1));
+            if (location == null)
+                return null;
+            tagOrItem = Either.left(TagKey.create(Registries.ITEM, location));
+        }
+        else {
+            Item item = readItem(id);
+            if (item == null)
+                return null;
+            tagOrItem = Either.right(item);
+        }
+
+        int count = 1;
+        if (tag.contains("Count")) {
+            if (!tag.contains("Count", Tag.TAG_ANY_NUMERIC) || tag.getInt("Count") <= 0)
+                return null;
+            count = tag.getInt("Count");
+        }
+
+        CompoundTag itemTag = null;
+        if (tag.contains("tag")) {
+            if (!tag.contains("tag", Tag.TAG_COMPOUND))
+                return null;
+            itemTag = tag.getCompound("tag").copy();
+        }
+
+        CompoundTagCompareBehavior compareBehavior = CompoundTagCompareBehavior.WEAK;
+        if (tag.contains("TagMatching")) {
+            compareBehavior = null;
+            String name = tag.getString("TagMatching");
+            for (CompoundTagCompareBehavior behavior : CompoundTagCompareBehavior.values()) {
+                if (behavior.getSerializedName().equals(name))
+                    compareBehavior = behavior;
+            }
+            if (compareBehavior == null)
+                return null;
+        }
+
+        return new RequestedItem(tagOrItem, count, itemTag, compareBehavior);
+    }
+
+    // Same layout as ItemStack.CODEC (Count is an int, not a byte like in ItemStack#save).
+
+    private static CompoundTag writeItemStack(ItemStack stack) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("id", Objects.requireNonNull(ForgeRegistries.ITEMS.getKey(stack.getItem())).toString());
+        tag.putInt("Count", stack.getCount());
+        if (stack.getTag() != null)
+            tag.put("tag", stack.getTag().copy());
+        return tag;
+    }
+
+    private static @Nullable ItemStack readItemStack(CompoundTag tag) {
+        if (!tag.contains("id", Tag.TAG_STRING) || !tag.contains("Count", Tag.TAG_ANY_NUMERIC))
+            return null;
+
+        Item item = readItem(tag.getString("id"));
+        if (item == null)
+            return null;
+
+        ItemStack stack = new ItemStack(item, tag.getInt("Count"));
+        if (tag.contains("tag")) {
+            if (!tag.contains("tag", Tag.TAG_COMPOUND))
+                return null;
+            stack.setTag(tag.getCompound("tag").copy());
+        }
+        return stack;
+    }
+
+    private static @Nullable Item readItem(String id) {
+        ResourceLocation location = ResourceLocation.tryParse(id);
+        if (location == null || !ForgeRegistries.ITEMS.containsKey(location))
+            return null;
+        return ForgeRegistries.ITEMS.getValue(location);
+    }
+}
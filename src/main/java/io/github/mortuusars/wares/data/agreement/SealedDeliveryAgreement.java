@@ -6,11 +6,13 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.data.LootTableCache;
 import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
 import io.github.mortuusars.wares.data.agreement.component.SealedRequestedItem;
 import io.github.mortuusars.wares.data.agreement.component.SteppedInt;
 import io.github.mortuusars.wares.data.agreement.component.TextProvider;
 import io.github.mortuusars.wares.data.serialization.ComponentCodec;
+import io.github.mortuusars.wares.util.ItemStackUtils;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.Tag;
@@ -18,11 +20,7 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.RandomSource;
-import net.minecraft.world.SimpleContainer;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.level.storage.loot.LootParams;
-import net.minecraft.world.level.storage.loot.LootTable;
-import net.minecraft.world.level.storage.loot.parameters.LootContextParamSets;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -138,18 +136,11 @@ public record SealedDeliveryAgreement(String id,
     }
 
     private List<ItemStack> unpackLootTable(ResourceLocation lootTablePath, ServerLevel level) {
-        LootTable lootTable = level.getServer().getLootData().getLootTable(lootTablePath);
-        return lootTable.getRandomItems(new LootParams.Builder(level).create(LootContextParamSets.EMPTY));
+        return LootTableCache.getRandomItems(level, lootTablePath);
     }
 
     private List<ItemStack> compressAndLimitStacks(List<ItemStack> stacks, int stackLimit) {
-        SimpleContainer container = new SimpleContainer(stackLimit);
-
-        for (ItemStack item : stacks) {
-            container.addItem(item);
-        }
-
-        return container.removeAllItems();
+        return ItemStackUtils.compressAndLimit(stacks, stackLimit);
     }
 
     @SuppressWarnings("unused")
@@ -0,0 +1,282 @@
+package io.github.mortuusars.wares.data.agreement.component;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Precompiled matcher of a list of {@link RequestedItem}s against slots of an item handler.
+ * <br><br>
+ * Items (including the ones resolved from item tags) are mapped to indices of requested items that they can match,
+ * so checking a slot is a single map lookup (plus NBT comparison if requested item has one).
+ * Available counts are tracked in reusable per-slot arrays - no stacks are copied.
+ * <br><br>
+ * Items are distributed exactly like it was done before: each requested item (in order) takes from slots (in order)
+ * as much as it needs. Same plan is used for checking and for consuming, so they always agree.
+ */
+public class RequestedItemsMatcher {
+    private static final int[] NO_INDICES = new int[0];
+
+    /**
+     * Incremented when item tags are reloaded. Matchers resolved with older tags are re-resolved when used.
+     */
+    private static volatile int tagsRevision = 0;
+
+    private final List<RequestedItem> requestedItems;
+    private final RequestedItem[] requested;
+    private final int[] requiredCounts;
+    private final boolean[] needsTagCheck;
+
+    private Map<Item, int[]> requestIndicesByItem = Map.of();
+    private int resolvedTagsRevision = -1;
+
+    // Reusable buffers, sized to the number of checked slots:
+    private int[] remainingInSlot = NO_INDICES;
+    private int[] takenFromSlot = NO_INDICES;
+    private boolean[] slotMatches = new boolean[0];
+    private int[] missing = NO_INDICES;
+
+    public RequestedItemsMatcher(List<RequestedItem> requestedItems) {
+        this.requestedItems = requestedItems;
+
+        // Same as before - requested items after the first empty one are not considered.
+        int count = 0;
+        while (count < requestedItems.size() && !requestedItems.get(count).isEmpty()) {
+            count++;
+        }
+
+        requested = new RequestedItem[count];
+        requiredCounts = new int[count];
+        needsTagCheck = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            RequestedItem requestedItem = requestedItems.get(i);
+            requested[i] = requestedItem;
+            requiredCounts[i] = requestedItem.getCount();
+            needsTagCheck[i] = needsTagCheck(requestedItem);
+        }
+    }
+
+    public static void onTagsUpdated() {
+        tagsRevision++;
+    }
+
+    /**
+     * @return true if this matcher was created for this exact list.
+     */
+    public boolean isFor(List<RequestedItem> requestedItems) {
+        return this.requestedItems == requestedItems;
+    }
+
+    /**
+     * @return true if items in the slots are enough to fulfill all requested items.
+     */
+    public boolean matches(IItemHandler handler, int[] slots) {
+        return plan(handler, slots, 1);
+    }
+
+    /**
+     * @return how many times (up to maxBatches) all requested items can be fulfilled from the slots.
+     */
+    public int countBatches(IItemHandler handler, int[] slots, int maxBatches) {
+        if (maxBatches <= 0)
+            return 0;
+
+        if (requested.length == 0 || plan(handler, slots, maxBatches))
+            return maxBatches;
+
+        // Plan for n batches requires n times more of each requested item - if n is not possible, more is not either.
+        int possible = 0;
+        int impossible = maxBatches;
+        while (impossible - possible > 1) {
+            int batches = (possible + impossible) >>> 1;
+            if (plan(handler, slots, batches))
+                possible = batches;
+            else
+                impossible = batches;
+        }
+
+        return possible;
+    }
+
+    /**
+     * Extracts requested items from the slots, but only if all of them are available.
+     * @return true if items were extracted.
+     */
+    public boolean consume(IItemHandler handler, int[] slots) {
+        return consume(handler, slots, 1);
+    }
+
+    /**
+     * Extracts requested items for the specified number of batches from the slots, but only if all of them are available.
+     * @return true if items were extracted.
+     */
+    public boolean consume(IItemHandler handler, int[] slots, int batches) {
+        if (batches <= 0 || !plan(handler, slots, batches))
+            return false;
+
+        for (int i = 0; i < slots.length; i++) {
+            if (takenFromSlot[i] > 0)
+                handler.extractItem(slots[i], takenFromSlot[i], false);
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts how many items of each requested item are missing in the slots for the specified number of batches.
+     * Items are distributed the same way as when consuming.
+     * @return missing count per requested item. Array is reused by this matcher - it should not be kept.
+     */
+    public int[] countMissing(IItemHandler handler, int[] slots, int batches) {
+        if (missing.length < requested.length)
+            missing = new int[requested.length];
+        Arrays.fill(missing, 0);
+        plan(handler, slots, batches, missing);
+        return missing;
+    }
+
+    /**
+     * @return number of requested items that this matcher checks.
+     */
+    public int getRequestCount() {
+        return requested.length;
+    }
+
+    public RequestedItem getRequested(int requestIndex) {
+        return requested[requestIndex];
+    }
+
+    /**
+     * @return true if stack can be used for the requested item at the specified index.
+     */
+    public boolean matches(int requestIndex, ItemStack stack) {
+        resolveIfNeeded();
+
+        if (stack.isEmpty())
+            return false;
+
+        for (int r : requestIndicesByItem.getOrDefault(stack.getItem(), NO_INDICES)) {
+            if (r == requestIndex)
+                return !needsTagCheck[r] || requested[r].tagMatches(stack);
+        }
+        return false;
+    }
+
+    private boolean plan(IItemHandler handler, int[] slots, int batches) {
+        return plan(handler, slots, batches, null);
+    }
+
+    /**
+     * @param missingOut if not null - planning continues after a requested item that cannot be fulfilled, and missing counts are put here.
+     */
+    private boolean plan(IItemHandler handler, int[] slots, int batches, int @Nullable [] missingOut) {
+        resolveIfNeeded();
+
+        int requestCount = requested.length;
+        if (requestCount == 0)
+            return true;
+
+        int slotCount = slots.length;
+        ensureCapacity(slotCount, requestCount);
+
+        Arrays.fill(slotMatches, 0, slotCount * requestCount, false);
+        for (int s = 0; s < slotCount; s++) {
+            ItemStack stack = handler.getStackInSlot(slots[s]);
+            remainingInSlot[s] = stack.getCount();
+            takenFromSlot[s] = 0;
+
+            if (stack.isEmpty())
+                continue;
+
+            int[] indices = requestIndicesByItem.getOrDefault(stack.getItem(), NO_INDICES);
+            for (int r : indices) {
+                slotMatches[s * requestCount + r] = !needsTagCheck[r] || requested[r].tagMatches(stack);
+            }
+        }
+
+        for (int r = 0; r < requestCount; r++) {
+            long required = (long) requiredCounts[r] * batches;
+
+            for (int s = 0; s < slotCount && required > 0; s++) {
+                if (remainingInSlot[s] <= 0 || !slotMatches[s * requestCount + r])
+                    continue;
+
+                int taken = (int) Math.min(remainingInSlot[s], required);
+                remainingInSlot[s] -= taken;
+                takenFromSlot[s] += taken;
+                required -= taken;
+            }
+
+            if (required > 0) {
+                if (missingOut == null)
+                    return false;
+                missingOut[r] = (int) Math.min(required, Integer.MAX_VALUE);
+            }
+        }
+
+        if (missingOut != null) {
+            for (int r = 0; r < requestCount; r++) {
+                if (missingOut[r] > 0)
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void resolveIfNeeded() {
+        int currentTagsRevision = tagsRevision;
+        if (resolvedTagsRevision == currentTagsRevision)
+            return;
+
+        Map<Item, int[]> indices = new IdentityHashMap<>();
+        for (int r = 0; r < requested.length; r++) {
+            final int requestIndex = r;
+            requested[r].getTagOrItem().ifLeft(tag -> {
+                for (Item item : Objects.requireNonNull(ForgeRegistries.ITEMS.tags()).getTag(tag)) {
+                    addIndex(indices, item, requestIndex);
+                }
+            }).ifRight(item -> addIndex(indices, item, requestIndex));
+        }
+
+        requestIndicesByItem = indices;
+        resolvedTagsRevision = currentTagsRevision;
+    }
+
+    private static void addIndex(Map<Item, int[]> indices, Item item, int requestIndex) {
+        int[] existing = indices.get(item);
+        if (existing == null) {
+            indices.put(item, new int[] { requestIndex });
+        }
+        else if (existing[existing.length - 1] != requestIndex) {
+            int[] expanded = Arrays.copyOf(existing, existing.length + 1);
+            expanded[existing.length] = requestIndex;
+            indices.put(item, expanded);
+        }
+    }
+
+    private void ensureCapacity(int slotCount, int requestCount) {
+        if (remainingInSlot.length < slotCount) {
+            remainingInSlot = new int[slotCount];
+            takenFromSlot = new int[slotCount];
+        }
+        if (slotMatches.length < slotCount * requestCount)
+            slotMatches = new boolean[slotCount * requestCount];
+    }
+
+    private static boolean needsTagCheck(RequestedItem requestedItem) {
+        return switch (requestedItem.getTagCompareBehavior()) {
+            case IGNORE -> false;
+            case WEAK -> requestedItem.getTag() != null && !requestedItem.getTag().isEmpty();
+            case STRONG -> true;
+        };
+    }
+}
@@ -6,19 +6,53 @@ import com.mojang.serialization.DataResult;
 import io.github.mortuusars.wares.data.serialization.ComponentCodec;
 import net.minecraft.network.chat.Component;
 import net.minecraft.util.RandomSource;
-import net.minecraft.util.random.SimpleWeightedRandomList;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
-public record TextProvider(Either<Component, List<WeightedComponent>> provider) {
+/**
+ * Provides a single component, or a random one from a weighted list.
+ * <br><br>
+ * Weighted list is compiled once into cumulative weights. Picking a component uses one {@code random.nextInt(totalWeight)} call
+ * and the same weight walk as {@link net.minecraft.util.random.WeightedRandom}, so results are the same as with {@link net.minecraft.util.random.SimpleWeightedRandomList}.
+ */
+public final class TextProvider {
     public static final Codec<TextProvider> CODEC = Codec.either(ComponentCodec.CODEC, Codec.list(WeightedComponent.CODEC))
             .flatXmap(i -> DataResult.success(new TextProvider(i)), i -> DataResult.success(i.provider));
 
     public static final TextProvider EMPTY = TextProvider.of(Component.empty());
 
+    private final Either<Component, List<WeightedComponent>> provider;
+
+    private final Component[] components;
+    /**
+     * Sum of weights of all components up to and including the one at the same index.
+     */
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    public TextProvider(Either<Component, List<WeightedComponent>> provider) {
+        this.provider = provider;
+
+        List<WeightedComponent> weightedComponents = provider.right().orElse(List.of());
+        components = new Component[weightedComponents.size()];
+        cumulativeWeights = new int[weightedComponents.size()];
+
+        long total = 0;
+        for (int i = 0; i < weightedComponents.size(); i++) {
+            WeightedComponent weightedComponent = weightedComponents.get(i);
+            total += weightedComponent.weight().asInt();
+            if (total > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Sum of weights must be <= " + Integer.MAX_VALUE);
+
+            components[i] = weightedComponent.component();
+            cumulativeWeights[i] = (int) total;
+        }
+        totalWeight = (int) total;
+    }
+
     public static TextProvider of(Component component) {
         return new TextProvider(Either.left(component));
     }
@@ -31,23 +65,51 @@ public record TextProvider(Either<Component, List<WeightedComponent>> provider)
         return new TextProvider(Either.right(Arrays.stream(components).toList()));
     }
 
-    public Component get(RandomSource random) {
-        return provider.map(component -> component, weightedComponents -> TextProvider.fromWeightedList(weightedComponents, random));
+    public Either<Component, List<WeightedComponent>> provider() {
+        return provider;
     }
 
-    private static Component fromWeightedList(List<WeightedComponent> weightedComponents, RandomSource random) {
-        SimpleWeightedRandomList.Builder<Component> weightedList = SimpleWeightedRandomList.builder();
+    public Component get(RandomSource random) {
+        return provider.map(component -> component, weightedComponents -> getWeighted(random));
+    }
 
-        for (WeightedComponent weightedComponent : weightedComponents) {
-            weightedList.add(weightedComponent.component(), weightedComponent.weight().asInt());
+    private Component getWeighted(RandomSource random) {
+        if (totalWeight == 0) {
+            throw new IllegalStateException("No result from Weighted List. Something must be wrong. List: [" +
+                    provider.right().orElse(List.of()).stream().map(Record::toString).collect(Collectors.joining(",")));
         }
 
-        Optional<Component> randomValue = weightedList.build().getRandomValue(random);
-        if (randomValue.isEmpty()) {
-            throw new IllegalStateException("No result from Weighted List. Something must be wrong. List: [" +
-                    weightedComponents.stream().map(Record::toString).collect(Collectors.joining(",")));
+        int value = random.nextInt(totalWeight);
+
+        // First component which cumulative weight is larger than the value:
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] > value)
+                high = mid;
+            else
+                low = mid + 1;
         }
 
-        return randomValue.get();
+        return components[low];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TextProvider that = (TextProvider) o;
+        return Objects.equals(provider, that.provider);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(provider);
+    }
+
+    @Override
+    public String toString() {
+        return "TextProvider[provider=" + provider + ']';
     }
 }
@@ -3,34 +3,48 @@ package io.github.mortuusars.wares.event;
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.client.gui.screen.CardboardBoxScreen;
 import io.github.mortuusars.wares.client.gui.screen.DeliveryTableScreen;
+import io.github.mortuusars.wares.client.item.PackagePreviews;
 import net.minecraft.client.gui.screens.MenuScreens;
 import net.minecraft.world.item.CreativeModeTabs;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
 import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
 
-@Mod.EventBusSubscriber(modid = Wares.ID, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class ClientEvents {
-    @SubscribeEvent
-    public static void clientSetup(final FMLClientSetupEvent event) {
-        event.enqueueWork(() -> {
-            MenuScreens.register(Wares.MenuTypes.DELIVERY_TABLE.get(), DeliveryTableScreen::new);
-            MenuScreens.register(Wares.MenuTypes.CARDBOARD_BOX.get(), CardboardBoxScreen::new);
-        });
-    }
+    @Mod.EventBusSubscriber(modid = Wares.ID, bus = Mod.EventBusSubscriber.Bus.MOD)
+    public static class ModBus {
+        @SubscribeEvent
+        public static void clientSetup(final FMLClientSetupEvent event) {
+            event.enqueueWork(() -> {
+                MenuScreens.register(Wares.MenuTypes.DELIVERY_TABLE.get(), DeliveryTableScreen::new);
+                MenuScreens.register(Wares.MenuTypes.CARDBOARD_BOX.get(), CardboardBoxScreen::new);
+            });
+        }
 
-    @SubscribeEvent
-    public static void onCreativeTabsBuild(BuildCreativeModeTabContentsEvent event) {
-        if (event.getTabKey() == CreativeModeTabs.TOOLS_AND_UTILITIES) {
-            event.accept(Wares.Items.SEALED_DELIVERY_AGREEMENT.get());
-            event.accept(Wares.Items.DELIVERY_AGREEMENT.get());
+        @SubscribeEvent
+        public static void onCreativeTabsBuild(BuildCreativeModeTabContentsEvent event) {
+            if (event.getTabKey() == CreativeModeTabs.TOOLS_AND_UTILITIES) {
+                event.accept(Wares.Items.SEALED_DELIVERY_AGREEMENT.get());
+                event.accept(Wares.Items.DELIVERY_AGREEMENT.get());
+            }
+
+            if (event.getTabKey() == CreativeModeTabs.FUNCTIONAL_BLOCKS) {
+                event.accept(Wares.Items.DELIVERY_TABLE.get());
+                event.accept(Wares.Items.CARDBOARD_BOX.get());
+                event.accept(Wares.Items.PACKAGE.get());
+            }
         }
+    }
 
-        if (event.getTabKey() == CreativeModeTabs.FUNCTIONAL_BLOCKS) {
-            event.accept(Wares.Items.DELIVERY_TABLE.get());
-            event.accept(Wares.Items.CARDBOARD_BOX.get());
-            event.accept(Wares.Items.PACKAGE.get());
+    @Mod.EventBusSubscriber(modid = Wares.ID, value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.FORGE)
+    public static class ForgeBus {
+        @SubscribeEvent
+        public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+            // Contents of seeded packages depend on the loot tables of the server.
+            PackagePreviews.clear();
         }
     }
 }
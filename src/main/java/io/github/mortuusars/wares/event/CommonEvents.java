@@ -3,11 +3,25 @@ package io.github.mortuusars.wares.event;
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.command.WaresCommand;
 import io.github.mortuusars.wares.config.Config;
+import io.github.mortuusars.wares.data.LootTableCache;
 import io.github.mortuusars.wares.data.agreement.SealedDeliveryAgreement;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItemsMatcher;
 import io.github.mortuusars.wares.data.agreement.component.SteppedInt;
+import io.github.mortuusars.wares.network.Packets;
+import io.github.mortuusars.wares.world.AgreementExpiryTracker;
+import io.github.mortuusars.wares.world.DeliveryScheduler;
+import io.github.mortuusars.wares.world.ItemSpawnQueue;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.common.BasicItemListing;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.event.village.WandererTradesEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -18,6 +32,7 @@ public class CommonEvents {
     public static class ModBus {
         @SubscribeEvent
         public static void commonSetup(FMLCommonSetupEvent event) {
+            Packets.register();
             event.enqueueWork(Wares.Stats::register);
         }
     }
@@ -29,6 +44,46 @@ public class CommonEvents {
             WaresCommand.register(event.getDispatcher());
         }
 
+        @SubscribeEvent
+        public static void onLevelTick(TickEvent.LevelTickEvent event) {
+            if (event.phase == TickEvent.Phase.START && event.level instanceof ServerLevel serverLevel) {
+                DeliveryScheduler.onLevelTickStart(serverLevel);
+                AgreementExpiryTracker.onLevelTickStart(serverLevel);
+                ItemSpawnQueue.onLevelTickStart(serverLevel);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event) {
+            if (event.getLevel() instanceof ServerLevel serverLevel) {
+                DeliveryScheduler.remove(serverLevel);
+                AgreementExpiryTracker.remove(serverLevel);
+                ItemSpawnQueue.remove(serverLevel);
+                LootTableCache.remove(serverLevel);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onServerStopping(ServerStoppingEvent event) {
+            ItemSpawnQueue.spawnAllQueued();
+        }
+
+        @SubscribeEvent
+        public static void onServerStopped(ServerStoppedEvent event) {
+            LootTableCache.clear();
+        }
+
+        @SubscribeEvent
+        public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+                AgreementExpiryTracker.trackInventory(serverPlayer);
+        }
+
+        @SubscribeEvent
+        public static void onTagsUpdated(TagsUpdatedEvent event) {
+            RequestedItemsMatcher.onTagsUpdated();
+        }
+
         @SubscribeEvent
         public static void addWanderingTrades(WandererTradesEvent event) {
             if (!Config.WANDERING_TRADER_AGREEMENTS.get())
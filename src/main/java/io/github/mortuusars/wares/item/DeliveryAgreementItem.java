@@ -1,14 +1,17 @@
 package io.github.mortuusars.wares.item;
 
+import com.google.common.collect.MapMaker;
 import com.mojang.datafixers.util.Either;
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.client.gui.agreement.AgreementGUI;
 import io.github.mortuusars.wares.client.gui.screen.DeliveryTableScreen;
 import io.github.mortuusars.wares.data.agreement.DeliveryAgreement;
+import io.github.mortuusars.wares.util.DecodedTagCache;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
@@ -17,6 +20,7 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResultHolder;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.SlotAccess;
+import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.ClickAction;
 import net.minecraft.world.inventory.Slot;
@@ -28,10 +32,18 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
 public class DeliveryAgreementItem extends Item {
+    private static final int INVENTORY_CHECK_INTERVAL = 20;
+    /**
+     * Expire time does not change after agreement is created, so it is read once per tag. Weak keys are compared by identity.
+     */
+    private static final Map<CompoundTag, Long> EXPIRE_TIME_CACHE = new MapMaker().weakKeys().makeMap();
+    private static final DecodedTagCache<DeliveryAgreement> TOOLTIP_CACHE = new DecodedTagCache<>(256,
+            stack -> DeliveryAgreement.fromItemStack(stack).filter(agreement -> !agreement.isEmpty()));
 
     public DeliveryAgreementItem(Properties properties) {
         super(properties);
@@ -39,7 +51,7 @@ public class DeliveryAgreementItem extends Item {
 
     @Override
     public void appendHoverText(@NotNull ItemStack stack, @Nullable Level level, @NotNull List<Component> tooltipComponents, @NotNull TooltipFlag isAdvanced) {
-        getAgreementFromStack(stack).ifLeft(agreement ->
+        TOOLTIP_CACHE.get(stack).ifPresent(agreement ->
                 tooltipComponents.add(Component.translatable("item.wares.agreement.view.tooltip").withStyle(Style.EMPTY.withColor(0xd6b589))));
     }
 
@@ -79,30 +91,59 @@ public class DeliveryAgreementItem extends Item {
         return super.overrideOtherStackedOnMe(agreementStack, otherStack, slot, action, player, slotAccess);
     }
 
-    @SuppressWarnings("DataFlowIssue")
     @Override
-    public void inventoryTick(ItemStack stack, @NotNull Level level, @NotNull Entity entity, int slotId, boolean isSelected) {
-        if (stack.is(Wares.Items.DELIVERY_AGREEMENT.get()) && entity instanceof ServerPlayer serverPlayer && stack.hasTag()) {
-
-            boolean isExpired = false;
+    public void inventoryTick(@NotNull ItemStack stack, @NotNull Level level, @NotNull Entity entity, int slotId, boolean isSelected) {
+        // Expiry is mostly handled by AgreementExpiryTracker. This is a safety net for agreements that were not tracked,
+        // so it doesn't need to run every tick. Slot is added to spread the checks between ticks.
+        if ((level.getGameTime() + slotId) % INVENTORY_CHECK_INTERVAL != 0)
+            return;
+
+        if (stack.is(Wares.Items.DELIVERY_AGREEMENT.get()) && entity instanceof ServerPlayer serverPlayer && stack.getTag() != null) {
+            Inventory inventory = serverPlayer.getInventory();
+            if (inventory.getItem(slotId) != stack)
+                return; // Not in the main inventory. Slot ids of armor and offhand are overlapping with main inventory.
+
+            long expireTime = getExpireTime(stack);
+            if (expireTime >= 0 && expireTime <= level.getGameTime()) {
+                inventory.setItem(slotId, convertToExpired(stack));
+                return;
+            }
 
             CompoundTag tag = stack.getTag();
-            if (tag.contains("expireTime")) {
-                long expireTime = tag.getLong("expireTime");
-                if (expireTime >= 0 && expireTime <= level.getGameTime()) {
-                    ItemStack expiredStack = convertToExpired(stack);
-                    serverPlayer.getInventory().setItem(slotId, expiredStack);
-                    isExpired = true;
-                }
-            }
+            int ordered = tag.getInt("ordered");
+            if (ordered > 0 && tag.getInt("delivered") >= ordered)
+                inventory.setItem(slotId, convertToCompleted(stack));
+        }
+    }
 
-            if (!isExpired && tag.contains("ordered") && tag.contains("remaining")) {
-                int ordered = tag.getInt("ordered");
-                int remaining = tag.getInt("remaining");
-                if (ordered > 0 && remaining <= 0) {
-                    ItemStack completedStack = convertToCompleted(stack);
-                    serverPlayer.getInventory().setItem(slotId, completedStack);
-                }
+    /**
+     * @return expire time of the agreement in the stack, or -1 if it does not expire. Cached per stack tag.
+     */
+    public static long getExpireTime(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (tag == null)
+            return -1L;
+
+        Long cached = EXPIRE_TIME_CACHE.get(tag);
+        if (cached != null)
+            return cached;
+
+        long expireTime = tag.contains("expireTimestamp", Tag.TAG_ANY_NUMERIC) ? tag.getLong("expireTimestamp") : -1L;
+        EXPIRE_TIME_CACHE.put(tag, expireTime);
+        return expireTime;
+    }
+
+    /**
+     * Converts all expired agreements in player's inventory.
+     */
+    public static void convertExpiredAgreements(Player player, long gameTime) {
+        Inventory inventory = player.getInventory();
+        for (int slot = 0; slot < inventory.getContainerSize(); slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            if (stack.is(Wares.Items.DELIVERY_AGREEMENT.get())) {
+                long expireTime = getExpireTime(stack);
+                if (expireTime >= 0 && expireTime <= gameTime)
+                    inventory.setItem(slot, convertToExpired(stack));
             }
         }
     }
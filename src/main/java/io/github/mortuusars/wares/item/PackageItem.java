@@ -2,22 +2,28 @@ package io.github.mortuusars.wares.item;
 
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.block.entity.PackageBlockEntity;
+import io.github.mortuusars.wares.client.item.PackagePreviews;
 import io.github.mortuusars.wares.data.Package;
+import io.github.mortuusars.wares.util.DecodedTagCache;
+import io.github.mortuusars.wares.world.PackageUnpacker;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundSource;
-import net.minecraft.world.Containers;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.InteractionResultHolder;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.Slot;
 import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.TooltipFlag;
@@ -30,10 +36,15 @@ import net.minecraft.world.phys.Vec3;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 public class PackageItem extends BlockItem {
+    private static final int MAX_PREVIEW_LINES = 8;
+    private static final DecodedTagCache<Package> TOOLTIP_CACHE = new DecodedTagCache<>(256, Package::fromItemStack);
+
     public PackageItem(Block block, Properties properties) {
         super(block, properties);
     }
@@ -43,7 +54,7 @@ public class PackageItem extends BlockItem {
         super.appendHoverText(stack, level, tooltip, flag);
 
         if (level instanceof ClientLevel) {
-            Package.fromItemStack(stack).ifPresent(pkg -> {
+            TOOLTIP_CACHE.get(stack).ifPresent(pkg -> {
                 String sender = pkg.sender();
                 if (sender.length() > 0)
                     tooltip.add(Component.translatable("item.wares.package.sender.tooltip").withStyle(ChatFormatting.GRAY)
@@ -52,11 +63,91 @@ public class PackageItem extends BlockItem {
                 if (Minecraft.getInstance().player != null && Minecraft.getInstance().player.isCreative())
                     pkg.items().ifLeft(lootTable -> tooltip.add(
                             Component.translatable("item.wares.package.loot_table.tooltip").withStyle(ChatFormatting.DARK_GRAY)
-                                    .append(Component.literal(lootTable.toString()))));
+                                    .append(Component.literal(pkg.lootSeed() != 0L ? lootTable + " #" + pkg.lootSeed() : lootTable.toString()))));
+
+                if (isPreviewable(pkg)) {
+                    if (Screen.hasShiftDown())
+                        appendContentsPreview(pkg, tooltip);
+                    else
+                        tooltip.add(Component.translatable("item.wares.package.preview.tooltip").withStyle(ChatFormatting.DARK_GRAY));
+                }
             });
         }
     }
 
+    /**
+     * Contents of unseeded loot table packages are rolled when package is opened - they cannot be previewed.
+     */
+    private static boolean isPreviewable(Package pkg) {
+        return pkg.items().map(lootTable -> pkg.lootSeed() != 0L, items -> items.stream().anyMatch(stack -> !stack.isEmpty()));
+    }
+
+    private static void appendContentsPreview(Package pkg, List<Component> tooltip) {
+        @Nullable List<ItemStack> contents = pkg.items().map(lootTable -> PackagePreviews.get(lootTable, pkg.lootSeed()),
+                items -> items.stream().filter(stack -> !stack.isEmpty()).toList());
+
+        if (contents == null) {
+            tooltip.add(Component.translatable("item.wares.package.preview.loading.tooltip").withStyle(ChatFormatting.DARK_GRAY));
+            return;
+        }
+
+        int shownLines = contents.size() > MAX_PREVIEW_LINES ? MAX_PREVIEW_LINES - 1 : contents.size();
+        for (int i = 0; i < shownLines; i++) {
+            ItemStack stack = contents.get(i);
+            tooltip.add(Component.literal(" ").append(stack.getHoverName()).append(" x" + stack.getCount())
+                    .withStyle(ChatFormatting.GRAY));
+        }
+
+        if (shownLines < contents.size())
+            tooltip.add(Component.translatable("item.wares.package.preview.more.tooltip", contents.size() - shownLines)
+                    .withStyle(ChatFormatting.DARK_GRAY));
+    }
+
+    /**
+     * Loot table package that is not yet seeded is split into single packages, each with its own loot seed -
+     * contents of the package will not change after that and can be previewed.
+     * Other stacks are returned as a single copy.
+     */
+    public static List<ItemStack> copyWithLootSeeds(ItemStack stack, RandomSource random) {
+        Optional<Package> pkg = stack.getItem() instanceof PackageItem ? Package.fromItemStack(stack) : Optional.empty();
+        if (pkg.isEmpty() || !pkg.get().isLootTable() || pkg.get().lootSeed() != 0L)
+            return List.of(stack.copy());
+
+        List<ItemStack> stacks = new ArrayList<>(stack.getCount());
+        for (int i = 0; i < stack.getCount(); i++) {
+            ItemStack seededStack = stack.copyWithCount(1);
+            pkg.get().withLootSeed(random).toItemStack(seededStack);
+            stacks.add(seededStack);
+        }
+        return stacks;
+    }
+
+    /**
+     * @return true if player has the seeded package in the inventory, open container or carried by the cursor.
+     */
+    public static boolean canSeePackage(ServerPlayer player, ResourceLocation lootTable, long lootSeed) {
+        if (isSeededPackage(player.containerMenu.getCarried(), lootTable, lootSeed))
+            return true;
+
+        for (ItemStack stack : player.getInventory().items) {
+            if (isSeededPackage(stack, lootTable, lootSeed))
+                return true;
+        }
+
+        for (Slot slot : player.containerMenu.slots) {
+            if (isSeededPackage(slot.getItem(), lootTable, lootSeed))
+                return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isSeededPackage(ItemStack stack, ResourceLocation lootTable, long lootSeed) {
+        return stack.getItem() instanceof PackageItem && Package.fromItemStack(stack)
+                .map(pkg -> pkg.lootSeed() == lootSeed && pkg.items().left().map(lootTable::equals).orElse(false))
+                .orElse(false);
+    }
+
     @Override
     public @NotNull SoundEvent getEatingSound() {
         return Wares.SoundEvents.PAPER_TEAR.get();
@@ -98,9 +189,11 @@ public class PackageItem extends BlockItem {
         if (level instanceof ServerLevel serverLevel) {
             Package pack = Package.fromItemStack(stack).orElse(Package.DEFAULT);
             Vec3 pos = livingEntity.position();
-            for (ItemStack itemStack : pack.getItems(serverLevel, livingEntity.position())) {
-                Containers.dropItemStack(level, pos.x, pos.y, pos.z, itemStack);
-            }
+            List<ItemStack> items = pack.getItems(serverLevel, pos);
+            if (livingEntity instanceof Player player)
+                PackageUnpacker.unpackTo(serverLevel, player, items);
+            else
+                PackageUnpacker.unpackAt(serverLevel, livingEntity.blockPosition(), items);
             level.playSound(null, pos.x, pos.y, pos.z, Wares.SoundEvents.CARDBOARD_HIT.get(), SoundSource.PLAYERS,
                     1f, level.getRandom().nextFloat() * 0.2f + 0.9f);
 
@@ -119,7 +212,7 @@ public class PackageItem extends BlockItem {
     @Override
     protected boolean updateCustomBlockEntityTag(@NotNull BlockPos pos, Level level, @Nullable Player player, @NotNull ItemStack stack, @NotNull BlockState state) {
         if (level.getBlockEntity(pos) instanceof PackageBlockEntity packageBlockEntity)
-            packageBlockEntity.setPackage(Package.fromItemStack(stack).orElse(Package.DEFAULT));
+            packageBlockEntity.setPackage(Package.fromItemStack(stack).orElse(Package.DEFAULT).withLootSeed(level.getRandom()));
 
         return super.updateCustomBlockEntityTag(pos, level, player, stack, state);
     }
@@ -5,12 +5,15 @@ import io.github.mortuusars.wares.client.gui.agreement.SealedAgreementScreen;
 import io.github.mortuusars.wares.config.Config;
 import io.github.mortuusars.wares.data.agreement.DeliveryAgreement;
 import io.github.mortuusars.wares.data.agreement.SealedDeliveryAgreement;
+import io.github.mortuusars.wares.util.DecodedTagCache;
+import io.github.mortuusars.wares.world.AgreementExpiryTracker;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.InteractionHand;
@@ -36,6 +39,8 @@ public class SealedDeliveryAgreementItem extends Item {
     public static final String DAMAGED_TAG = "AgreementDamaged";
     public static final String UNOPENABLE_TAG = "AgreementUnopenable";
 
+    private static final DecodedTagCache<SealedDeliveryAgreement> TOOLTIP_CACHE = new DecodedTagCache<>(256, SealedDeliveryAgreement::fromItemStack);
+
     public SealedDeliveryAgreementItem(Properties properties) {
         super(properties);
     }
@@ -45,7 +50,7 @@ public class SealedDeliveryAgreementItem extends Item {
         if (stack.getTag() == null || stack.getTag().isEmpty() || stack.getTag().contains(DAMAGED_TAG) || stack.getTag().contains(UNOPENABLE_TAG))
             return;
 
-        SealedDeliveryAgreement.fromItemStack(stack).ifPresent(a ->
+        TOOLTIP_CACHE.get(stack).ifPresent(a ->
                 tooltipComponents.add(Component.translatable("item.wares.sealed_agreement.view.tooltip")
                         .withStyle(Style.EMPTY.withColor(0xd6b589))));
     }
@@ -142,6 +147,9 @@ public class SealedDeliveryAgreementItem extends Item {
                 }
 
                 if (agreement.toItemStack(agreementStack)) {
+                    if (agreement.canExpire() && player instanceof ServerPlayer serverPlayer)
+                        AgreementExpiryTracker.get(serverLevel).track(serverPlayer, agreement.getExpireTimestamp());
+
                     player.awardStat(Wares.Stats.SEALED_LETTERS_OPENED);
                     level.playSound(null,
                             player.position().x,
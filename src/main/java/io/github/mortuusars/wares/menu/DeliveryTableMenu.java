@@ -20,9 +20,16 @@ import java.util.Objects;
 
 public class DeliveryTableMenu extends AbstractContainerMenu {
     public static final int MANUAL_DELIVERY_BUTTON_ID = 0;
+    public static final int AGREEMENT_QUEUE_X = 184;
+    public static final int AGREEMENT_QUEUE_Y = 17;
 
     public final DeliveryTableBlockEntity blockEntity;
     private final ContainerData data;
+    /**
+     * Index of the first agreement queue slot. Queue slots are the last slots of the table, before player inventory.
+     */
+    public final int agreementQueueSlotsStart;
+    public final int tableSlotsEnd;
 
     public DeliveryTableMenu(int containerId, final Inventory playerInventory, final DeliveryTableBlockEntity blockEntity, ContainerData containerData) {
         super(Wares.MenuTypes.DELIVERY_TABLE.get(), containerId);
@@ -58,6 +65,15 @@ public class DeliveryTableMenu extends AbstractContainerMenu {
                     });
                 }
             }
+
+            // AGREEMENT QUEUE
+            // Placed on the side panel, to the right of the main panel.
+            agreementQueueSlotsStart = slots.size();
+            IItemHandler agreementQueue = blockEntity.getAgreementQueue();
+            for (int i = 0; i < agreementQueue.getSlots(); i++) {
+                this.addSlot(new SlotItemHandler(agreementQueue, i, AGREEMENT_QUEUE_X, AGREEMENT_QUEUE_Y + i * 18));
+            }
+            tableSlotsEnd = slots.size();
         }
 
         // Player inventory slots
@@ -96,8 +112,8 @@ public class DeliveryTableMenu extends AbstractContainerMenu {
         Slot slot = slots.get(index);
         ItemStack clickedStack = slot.getItem();
 
-        if (index < DeliveryTableBlockEntity.SLOTS) {
-            if (!moveItemStackTo(clickedStack, DeliveryTableBlockEntity.SLOTS, slots.size(), true))
+        if (index < tableSlotsEnd) {
+            if (!moveItemStackTo(clickedStack, tableSlotsEnd, slots.size(), true))
                 return ItemStack.EMPTY;
 
             // BEs inventory onContentsChanged is not fired when removing agreement by shift clicking.
@@ -105,12 +121,25 @@ public class DeliveryTableMenu extends AbstractContainerMenu {
             // This is needed to update agreement-related stuff. (Blockstate was not updating properly to reflect the removal).
             if (index == DeliveryTableBlockEntity.AGREEMENT_SLOT)
                 blockEntity.setItem(DeliveryTableBlockEntity.AGREEMENT_SLOT, slot.getItem());
+            else if (index >= agreementQueueSlotsStart)
+                blockEntity.getAgreementQueue().setStackInSlot(slot.getContainerSlot(), slot.getItem());
         }
         else if (index < slots.size()) {
-            if (!moveItemStackTo(clickedStack, 0, DeliveryTableBlockEntity.SLOTS, false))
+            // Agreements go to the queue when agreement slot is occupied, before they would go to input slots:
+            if (clickedStack.is(Wares.Items.DELIVERY_AGREEMENT.get())
+                    && (moveItemStackTo(clickedStack, DeliveryTableBlockEntity.AGREEMENT_SLOT, DeliveryTableBlockEntity.AGREEMENT_SLOT + 1, false)
+                        || moveItemStackTo(clickedStack, agreementQueueSlotsStart, tableSlotsEnd, false))) {
+                blockEntity.wakeUp();
+                return ItemStack.EMPTY;
+            }
+
+            if (!moveItemStackTo(clickedStack, 0, agreementQueueSlotsStart, false))
                 return ItemStack.EMPTY;
         }
 
+        // Merging stacks when shift-clicking modifies them directly and does not fire onContentsChanged.
+        blockEntity.wakeUp();
+
         return ItemStack.EMPTY;
     }
 
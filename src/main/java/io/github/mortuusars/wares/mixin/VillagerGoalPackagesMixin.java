@@ -3,6 +3,7 @@ package io.github.mortuusars.wares.mixin;
 import com.google.common.collect.ImmutableList;
 import com.mojang.datafixers.util.Pair;
 import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.villager.ai.behavior.ReportWorkToTable;
 import io.github.mortuusars.wares.villager.ai.behavior.ShowWorkItem;
 import net.minecraft.world.entity.ai.behavior.Behavior;
 import net.minecraft.world.entity.ai.behavior.VillagerGoalPackages;
@@ -19,6 +20,16 @@ import java.util.List;
 
 @Mixin(VillagerGoalPackages.class)
 public abstract class VillagerGoalPackagesMixin {
+    @Inject(method = "getCorePackage", cancellable = true, at = @At("RETURN"))
+    private static void getCorePackage(VillagerProfession profession, float speedModifier,
+                                       CallbackInfoReturnable<ImmutableList<Pair<Integer, ? extends Behavior<? super Villager>>>> cir) {
+        if (profession == Wares.Villagers.PACKAGER.get()) {
+            List<Pair<Integer, ? extends Behavior<? super Villager>>> villagerList = new ArrayList<>(cir.getReturnValue());
+            villagerList.add(Pair.of(0, new ReportWorkToTable()));
+            cir.setReturnValue(ImmutableList.copyOf(villagerList));
+        }
+    }
+
     @Inject(method = "getWorkPackage", cancellable = true, at = @At("RETURN"))
     private static void getWorkPackage(VillagerProfession profession, float speedModifier,
                                        CallbackInfoReturnable<ImmutableList<Pair<Integer, ? extends Behavior<? super Villager>>>> cir) {
@@ -0,0 +1,32 @@
+package io.github.mortuusars.wares.mixin;
+
+import io.github.mortuusars.wares.block.entity.DeliveryTableBlockEntity;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.memory.MemoryModuleType;
+import net.minecraft.world.entity.npc.Villager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Villager.class)
+public abstract class VillagerMixin {
+
+    /**
+     * Unbinds packager from the Delivery Table when villager releases its job site (death, conversion, etc.).
+     */
+    @Inject(method = "releasePoi", at = @At("HEAD"))
+    private void releasePoi(MemoryModuleType<GlobalPos> moduleType, CallbackInfo ci) {
+        Villager villager = (Villager) (Object) this;
+        if (moduleType != MemoryModuleType.JOB_SITE || !(villager.level() instanceof ServerLevel serverLevel))
+            return;
+
+        villager.getBrain().getMemory(MemoryModuleType.JOB_SITE).ifPresent(jobSite -> {
+            ServerLevel jobSiteLevel = serverLevel.getServer().getLevel(jobSite.dimension());
+            if (jobSiteLevel != null && jobSiteLevel.isLoaded(jobSite.pos())
+                    && jobSiteLevel.getBlockEntity(jobSite.pos()) instanceof DeliveryTableBlockEntity deliveryTableBlockEntity)
+                deliveryTableBlockEntity.unbindPackager(villager);
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.mortuusars.wares.network;
+
+import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.network.packet.ClientboundDeliveryTableUpdatePacket;
+import io.github.mortuusars.wares.network.packet.ClientboundPackagePreviewPacket;
+import io.github.mortuusars.wares.network.packet.ServerboundPackagePreviewPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+public class Packets {
+    private static final String PROTOCOL_VERSION = "1";
+    private static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+            Wares.resource("packets"),
+            () -> PROTOCOL_VERSION,
+            PROTOCOL_VERSION::equals,
+            PROTOCOL_VERSION::equals);
+
+    private static int id = 0;
+
+    public static void register() {
+        CHANNEL.messageBuilder(ClientboundDeliveryTableUpdatePacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(ClientboundDeliveryTableUpdatePacket::toBuffer)
+                .decoder(ClientboundDeliveryTableUpdatePacket::fromBuffer)
+                .consumerMainThread(ClientboundDeliveryTableUpdatePacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(ServerboundPackagePreviewPacket.class, id++, NetworkDirection.PLAY_TO_SERVER)
+                .encoder(ServerboundPackagePreviewPacket::toBuffer)
+                .decoder(ServerboundPackagePreviewPacket::fromBuffer)
+                .consumerMainThread(ServerboundPackagePreviewPacket::handle)
+                .add();
+
+        CHANNEL.messageBuilder(ClientboundPackagePreviewPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(ClientboundPackagePreviewPacket::toBuffer)
+                .decoder(ClientboundPackagePreviewPacket::fromBuffer)
+                .consumerMainThread(ClientboundPackagePreviewPacket::handle)
+                .add();
+    }
+
+    public static <MSG> void sendToServer(MSG message) {
+        CHANNEL.sendToServer(message);
+    }
+
+    public static <MSG> void sendToClient(ServerPlayer player, MSG message) {
+        CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), message);
+    }
+
+    public static <MSG> void sendToClientsTrackingChunk(LevelChunk chunk, MSG message) {
+        CHANNEL.send(PacketDistributor.TRACKING_CHUNK.with(() -> chunk), message);
+    }
+}
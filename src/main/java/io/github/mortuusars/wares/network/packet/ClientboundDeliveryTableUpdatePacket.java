@@ -0,0 +1,52 @@
+package io.github.mortuusars.wares.network.packet;
+
+import io.github.mortuusars.wares.client.network.ClientPacketsHandler;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Carries only the parts of Delivery Table that have changed since the last update:
+ * delivered count of the agreement (if changed without replacing agreement stack), progress and changed slots.
+ * @param delivered new delivered count or -1 if it was not changed.
+ * @param changedSlots indexes of the changed slots. Same length as 'stacks'.
+ */
+public record ClientboundDeliveryTableUpdatePacket(BlockPos pos, int delivered, int progress, boolean delivering,
+                                                   int[] changedSlots, ItemStack[] stacks) {
+    public void toBuffer(FriendlyByteBuf buffer) {
+        buffer.writeBlockPos(pos);
+        buffer.writeVarInt(delivered + 1); // -1 is written as 0 to keep it short.
+        buffer.writeVarInt(progress);
+        buffer.writeBoolean(delivering);
+        buffer.writeByte(changedSlots.length);
+        for (int i = 0; i < changedSlots.length; i++) {
+            buffer.writeByte(changedSlots[i]);
+            buffer.writeItem(stacks[i]);
+        }
+    }
+
+    public static ClientboundDeliveryTableUpdatePacket fromBuffer(FriendlyByteBuf buffer) {
+        BlockPos pos = buffer.readBlockPos();
+        int delivered = buffer.readVarInt() - 1;
+        int progress = buffer.readVarInt();
+        boolean delivering = buffer.readBoolean();
+        int count = buffer.readUnsignedByte();
+        int[] changedSlots = new int[count];
+        ItemStack[] stacks = new ItemStack[count];
+        for (int i = 0; i < count; i++) {
+            changedSlots[i] = buffer.readUnsignedByte();
+            stacks[i] = buffer.readItem();
+        }
+        return new ClientboundDeliveryTableUpdatePacket(pos, delivered, progress, delivering, changedSlots, stacks);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> contextSupplier) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientPacketsHandler.handleDeliveryTableUpdate(this));
+        contextSupplier.get().setPacketHandled(true);
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.mortuusars.wares.network.packet;
+
+import io.github.mortuusars.wares.client.network.ClientPacketsHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Contents of a seeded loot table package, rolled on the server in response to {@link ServerboundPackagePreviewPacket}.
+ */
+public record ClientboundPackagePreviewPacket(ResourceLocation lootTable, long lootSeed, List<ItemStack> items) {
+    public void toBuffer(FriendlyByteBuf buffer) {
+        buffer.writeResourceLocation(lootTable);
+        buffer.writeLong(lootSeed);
+        buffer.writeCollection(items, FriendlyByteBuf::writeItem);
+    }
+
+    public static ClientboundPackagePreviewPacket fromBuffer(FriendlyByteBuf buffer) {
+        return new ClientboundPackagePreviewPacket(buffer.readResourceLocation(), buffer.readLong(),
+                buffer.readList(FriendlyByteBuf::readItem));
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> contextSupplier) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientPacketsHandler.handlePackagePreview(this));
+        contextSupplier.get().setPacketHandled(true);
+    }
+}
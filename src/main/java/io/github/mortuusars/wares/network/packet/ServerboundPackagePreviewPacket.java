@@ -0,0 +1,40 @@
+package io.github.mortuusars.wares.network.packet;
+
+import com.mojang.datafixers.util.Either;
+import io.github.mortuusars.wares.data.Package;
+import io.github.mortuusars.wares.item.PackageItem;
+import io.github.mortuusars.wares.network.Packets;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Requests contents of a seeded loot table package. Contents are sent back only if the player can see such a package:
+ * in the inventory, open container or carried by the cursor.
+ */
+public record ServerboundPackagePreviewPacket(ResourceLocation lootTable, long lootSeed) {
+    public void toBuffer(FriendlyByteBuf buffer) {
+        buffer.writeResourceLocation(lootTable);
+        buffer.writeLong(lootSeed);
+    }
+
+    public static ServerboundPackagePreviewPacket fromBuffer(FriendlyByteBuf buffer) {
+        return new ServerboundPackagePreviewPacket(buffer.readResourceLocation(), buffer.readLong());
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        ServerPlayer player = context.getSender();
+        if (player != null && lootSeed != 0L && PackageItem.canSeePackage(player, lootTable, lootSeed)) {
+            List<ItemStack> items = new Package(Either.left(lootTable), "", lootSeed)
+                    .getItems(player.serverLevel(), player.position());
+            Packets.sendToClient(player, new ClientboundPackagePreviewPacket(lootTable, lootSeed, items));
+        }
+        context.setPacketHandled(true);
+    }
+}
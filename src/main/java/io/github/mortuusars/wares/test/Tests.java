@@ -2,11 +2,15 @@ package io.github.mortuusars.wares.test;
 
 import com.mojang.datafixers.util.Pair;
 import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.test.data.PackageTests;
 import io.github.mortuusars.wares.test.data.RequestedItemTests;
+import io.github.mortuusars.wares.test.data.TextProviderTests;
+import io.github.mortuusars.wares.test.data.agreement.AgreementSerializerTests;
 import io.github.mortuusars.wares.test.data.agreement.AgreementTest;
 import io.github.mortuusars.wares.test.framework.Test;
 import io.github.mortuusars.wares.test.framework.TestResult;
 import io.github.mortuusars.wares.test.framework.TestingResult;
+import io.github.mortuusars.wares.test.world.SharedAgreementCountersTests;
 import net.minecraft.server.level.ServerPlayer;
 
 import java.util.ArrayList;
@@ -25,7 +29,11 @@ public class Tests {
 
         Pair<List<TestResult>, List<TestResult>> ran = run(
                 new AgreementTest().collect(),
-                new RequestedItemTests().collect()
+                new AgreementSerializerTests().collect(),
+                new PackageTests().collect(),
+                new RequestedItemTests().collect(),
+                new TextProviderTests().collect(),
+                new SharedAgreementCountersTests().collect()
         );
 
         List<TestResult> skipped = skip();
@@ -0,0 +1,78 @@
+package io.github.mortuusars.wares.test.data;
+
+import com.mojang.datafixers.util.Either;
+import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.data.Package;
+import io.github.mortuusars.wares.item.PackageItem;
+import io.github.mortuusars.wares.test.framework.ITestClass;
+import io.github.mortuusars.wares.test.framework.Test;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class PackageTests implements ITestClass {
+    @Override
+    public List<Test> collect() {
+        return List.of(
+                new Test("SeededLootPackageHasSameContents", player -> {
+                    Package pack = new Package(Either.left(new ResourceLocation("chests/simple_dungeon")), "", 12345L);
+                    List<ItemStack> first = pack.getItems(player.serverLevel(), Vec3.ZERO);
+                    List<ItemStack> second = pack.getItems(player.serverLevel(), Vec3.ZERO);
+
+                    assertThat(first.size() == second.size(), "Seeded package rolled different number of stacks.");
+                    for (int i = 0; i < first.size(); i++) {
+                        assertThat(ItemStack.matches(first.get(i), second.get(i)),
+                                "Seeded package rolled different items: " + first.get(i) + ", " + second.get(i));
+                    }
+                }),
+
+                new Test("LootSeedIsKeptInTag", player -> {
+                    Package pack = new Package(Either.left(new ResourceLocation("chests/simple_dungeon"))).withLootSeed(player.getRandom());
+                    CompoundTag tag = new CompoundTag();
+                    pack.toTag(tag);
+                    Package read = Package.fromTag(tag).orElseThrow();
+
+                    assertThat(pack.lootSeed() != 0L, "Loot seed was not assigned.");
+                    assertThat(read.lootSeed() == pack.lootSeed(), "Loot seed is not read from tag.");
+                }),
+
+                new Test("CompressedContentsAreReadFromTag", player -> {
+                    ItemStack stack = new ItemStack(Items.DIAMOND_SWORD);
+                    stack.getOrCreateTag().putString("PackageTest", String.valueOf(player.getRandom().nextLong()));
+                    Package pack = new Package(Either.right(List.of(stack, new ItemStack(Items.STONE, 12))), "Test");
+
+                    CompoundTag tag = new CompoundTag();
+                    pack.toTag(tag, true);
+                    assertThat(tag.contains("compressedItems") && !tag.contains("packedItems"), "Contents were not compressed: " + tag);
+
+                    Package read = Package.fromTag(tag).orElseThrow();
+                    List<ItemStack> items = read.items().right().orElseThrow();
+                    assertThat(items.size() == 2 && ItemStack.matches(items.get(0), stack) && items.get(1).is(Items.STONE)
+                            && items.get(1).getCount() == 12, "Decompressed contents do not match: " + items);
+                    assertThat(read.sender().equals("Test"), "Sender is not read from compressed package.");
+                }),
+
+                new Test("PaidLootPackagesAreSeededSeparately", player -> {
+                    ItemStack stack = new ItemStack(Wares.Items.PACKAGE.get(), 3);
+                    new Package(Either.left(new ResourceLocation("chests/simple_dungeon"))).toItemStack(stack);
+                    List<ItemStack> copies = PackageItem.copyWithLootSeeds(stack, player.getRandom());
+
+                    assertThat(copies.size() == 3, "Package stack was not split: " + copies);
+                    Set<Long> seeds = new HashSet<>();
+                    for (ItemStack copy : copies) {
+                        long seed = Package.fromItemStack(copy).orElseThrow().lootSeed();
+                        assertThat(copy.getCount() == 1 && seed != 0L, "Package was not seeded: " + copy.getTag());
+                        seeds.add(seed);
+                    }
+                    assertThat(seeds.size() == 3, "Packages share loot seed: " + seeds);
+                    assertThat(!stack.getOrCreateTag().contains("lootSeed"), "Original stack was modified.");
+                })
+        );
+    }
+}
@@ -7,12 +7,15 @@ import com.mojang.serialization.JsonOps;
 import io.github.mortuusars.wares.Wares;
 import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
 import io.github.mortuusars.wares.data.agreement.component.CompoundTagCompareBehavior;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItemsMatcher;
 import io.github.mortuusars.wares.test.framework.ITestClass;
 import io.github.mortuusars.wares.test.framework.Test;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.tags.ItemTags;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.minecraftforge.items.ItemStackHandler;
 
 import java.util.List;
 
@@ -179,6 +182,45 @@ public class RequestedItemTests implements ITestClass {
                     stack1.setTag(stackTag1);
 
                     assertThat(!requested.matches(stack1), String.format("'%s' matches when shouldn't '%s'.", requested, stack1));
+                }),
+
+                new Test("RequestedItemsMatcherSplitsSlotsBetweenRequests", player -> {
+                    RequestedItemsMatcher matcher = new RequestedItemsMatcher(List.of(
+                            new RequestedItem(ItemTags.LOGS, 10),
+                            new RequestedItem(Items.OAK_LOG, 6)));
+
+                    ItemStackHandler handler = new ItemStackHandler(3);
+                    handler.setStackInSlot(0, new ItemStack(Items.OAK_LOG, 12));
+                    handler.setStackInSlot(1, new ItemStack(Items.BIRCH_LOG, 3));
+                    handler.setStackInSlot(2, new ItemStack(Items.OAK_LOG, 3));
+                    int[] slots = new int[] {0, 1, 2};
+
+                    assertThat(!matcher.matches(handler, slots), "Matcher matches when there is not enough items.");
+
+                    handler.setStackInSlot(2, new ItemStack(Items.OAK_LOG, 4));
+                    assertThat(matcher.matches(handler, slots), "Matcher does not match when there is enough items.");
+                    assertThat(matcher.consume(handler, slots), "Matcher has not consumed items.");
+                    assertThat(handler.getStackInSlot(0).isEmpty() && handler.getStackInSlot(1).getCount() == 3 && handler.getStackInSlot(2).isEmpty(),
+                            "Items were not consumed properly: " + handler.serializeNBT());
+                }),
+
+                new Test("RequestedItemsMatcherComparesTags", player -> {
+                    CompoundTag requestedTag = new CompoundTag();
+                    requestedTag.putInt("Damage", 5);
+                    RequestedItemsMatcher matcher = new RequestedItemsMatcher(List.of(
+                            new RequestedItem(Either.right(Items.IRON_PICKAXE), 1, requestedTag, CompoundTagCompareBehavior.WEAK)));
+
+                    ItemStackHandler handler = new ItemStackHandler(2);
+                    handler.setStackInSlot(0, new ItemStack(Items.IRON_PICKAXE));
+                    int[] slots = new int[] {0, 1};
+
+                    assertThat(!matcher.matches(handler, slots), "Matcher matches stack without required tag.");
+
+                    ItemStack stack = new ItemStack(Items.IRON_PICKAXE);
+                    stack.getOrCreateTag().putInt("Damage", 5);
+                    handler.setStackInSlot(1, stack);
+                    assertThat(matcher.consume(handler, slots) && handler.getStackInSlot(1).isEmpty()
+                            && !handler.getStackInSlot(0).isEmpty(), "Matcher has not consumed matching stack.");
                 })
         );
     }
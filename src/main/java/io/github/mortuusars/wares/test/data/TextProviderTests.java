@@ -0,0 +1,52 @@
+package io.github.mortuusars.wares.test.data;
+
+import io.github.mortuusars.wares.data.agreement.component.TextProvider;
+import io.github.mortuusars.wares.data.agreement.component.WeightedComponent;
+import io.github.mortuusars.wares.test.framework.ITestClass;
+import io.github.mortuusars.wares.test.framework.Test;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.random.SimpleWeightedRandomList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TextProviderTests implements ITestClass {
+    @Override
+    public List<Test> collect() {
+        return List.of(
+                new Test("TextProviderReturnsSingleComponent", player -> {
+                    Component component = Component.literal("Test");
+                    TextProvider provider = TextProvider.of(component);
+                    assertThat(provider.get(RandomSource.create()) == component, "Single component is not returned.");
+                }),
+
+                new Test("TextProviderPicksSameAsWeightedRandomList", player -> {
+                    RandomSource listRandom = RandomSource.create(42);
+                    for (int list = 0; list < 50; list++) {
+                        List<WeightedComponent> weightedComponents = new ArrayList<>();
+                        SimpleWeightedRandomList.Builder<Component> builder = SimpleWeightedRandomList.builder();
+                        int size = 1 + listRandom.nextInt(12);
+                        for (int i = 0; i < size; i++) {
+                            Component component = Component.literal("Component " + i);
+                            int weight = 1 + listRandom.nextInt(list % 2 == 0 ? 5 : 1000);
+                            weightedComponents.add(WeightedComponent.of(component, weight));
+                            builder.add(component, weight);
+                        }
+
+                        TextProvider provider = TextProvider.of(weightedComponents);
+                        SimpleWeightedRandomList<Component> weightedList = builder.build();
+
+                        RandomSource providerRandom = RandomSource.create(list);
+                        RandomSource vanillaRandom = RandomSource.create(list);
+                        for (int pick = 0; pick < 1000; pick++) {
+                            Component picked = provider.get(providerRandom);
+                            Component expected = weightedList.getRandomValue(vanillaRandom).orElseThrow();
+                            assertThat(picked == expected, String.format("Picked '%s' instead of '%s'. List: %s",
+                                    picked.getString(), expected.getString(), weightedComponents));
+                        }
+                    }
+                })
+        );
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.mortuusars.wares.test.data.agreement;
+
+import com.mojang.datafixers.util.Either;
+import io.github.mortuusars.wares.data.agreement.DeliveryAgreement;
+import io.github.mortuusars.wares.data.agreement.DeliveryAgreementSerializer;
+import io.github.mortuusars.wares.data.agreement.component.CompoundTagCompareBehavior;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
+import io.github.mortuusars.wares.test.framework.ITestClass;
+import io.github.mortuusars.wares.test.framework.Test;
+import net.minecraft.ChatFormatting;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AgreementSerializerTests implements ITestClass {
+    private static final int FUZZ_ITERATIONS = 500;
+    private static final Item[] ITEMS = new Item[] { Items.EMERALD, Items.OAK_LOG, Items.IRON_PICKAXE, Items.BREAD, Items.PAPER };
+    @SuppressWarnings("unchecked")
+    private static final TagKey<Item>[] TAGS = new TagKey[] { ItemTags.LOGS, ItemTags.WOOL, ItemTags.PLANKS };
+
+    @Override
+    public List<Test> collect() {
+        return List.of(
+                new Test("SerializerWritesSameTagAsCodec", player -> {
+                    RandomSource random = RandomSource.create(42);
+                    for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+                        DeliveryAgreement agreement = randomAgreement(random);
+
+                        CompoundTag written = new CompoundTag();
+                        DeliveryAgreementSerializer.write(agreement, written);
+
+                        Tag encoded = DeliveryAgreement.CODEC.encodeStart(NbtOps.INSTANCE, agreement).getOrThrow(false, s -> { });
+
+                        assertThat(written.equals(encoded), String.format("Written tag does not match codec.\nWritten: %s\nCodec:   %s", written, encoded));
+                    }
+                }),
+
+                new Test("SerializerReadsSameAgreementAsCodec", player -> {
+                    RandomSource random = RandomSource.create(1337);
+                    for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+                        DeliveryAgreement agreement = randomAgreement(random);
+
+                        CompoundTag written = new CompoundTag();
+                        DeliveryAgreementSerializer.write(agreement, written);
+
+                        DeliveryAgreement read = DeliveryAgreementSerializer.read(written);
+                        DeliveryAgreement decoded = DeliveryAgreement.CODEC.decode(NbtOps.INSTANCE, written).getOrThrow(false, s -> { }).getFirst();
+
+                        assertThat(read != null, "Serializer failed to read: " + written);
+                        assertThat(areSame(agreement, read), String.format("Read agreement does not match.\nExpected: %s\nRead:     %s", agreement, read));
+                        assertThat(areSame(decoded, read), String.format("Read agreement does not match codec.\nCodec: %s\nRead:  %s", decoded, read));
+                    }
+                }),
+
+                new Test("ProgressUpdateReadsSameAsFullWrite", player -> {
+                    RandomSource random = RandomSource.create(7);
+                    for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+                        DeliveryAgreement agreement = randomAgreement(random);
+                        ItemStack stack = new ItemStack(Items.PAPER);
+                        agreement.toItemStack(stack);
+
+                        agreement.onDeliver(random.nextInt(5));
+                        if (random.nextInt(10) == 0)
+                            agreement.expire();
+                        agreement.updateItemStack(stack);
+
+                        DeliveryAgreement read = DeliveryAgreement.fromItemStack(stack).orElse(null);
+                        assertThat(read != null && areSame(agreement, read),
+                                String.format("Updated agreement does not match.\nExpected: %s\nRead:     %s", agreement, read));
+                    }
+                }),
+
+                new Test("CodecTagIsReadBySerializer", player -> {
+                    DeliveryAgreement agreement = randomAgreement(RandomSource.create(3));
+                    CompoundTag encoded = (CompoundTag) DeliveryAgreement.CODEC.encodeStart(NbtOps.INSTANCE, agreement).getOrThrow(false, s -> { });
+
+                    DeliveryAgreement read = DeliveryAgreementSerializer.read(encoded);
+                    assertThat(read != null && areSame(agreement, read), "Codec tag is not read properly: " + read);
+                }),
+
+                new Test("TagWithUnknownFormatVersionIsDecodedWithCodec", player -> {
+                    DeliveryAgreement agreement = randomAgreement(RandomSource.create(5));
+                    ItemStack stack = new ItemStack(Items.PAPER);
+                    stack.setTag((CompoundTag) DeliveryAgreement.CODEC.encodeStart(NbtOps.INSTANCE, agreement).getOrThrow(false, s -> { }));
+                    stack.getOrCreateTag().putInt(DeliveryAgreementSerializer.FORMAT_VERSION_KEY, DeliveryAgreementSerializer.FORMAT_VERSION + 1);
+
+                    assertThat(DeliveryAgreementSerializer.read(stack.getOrCreateTag()) == null, "Serializer should not read tag with unknown format version.");
+
+                    DeliveryAgreement decoded = DeliveryAgreement.fromItemStack(stack).orElse(null);
+                    assertThat(decoded != null && areSame(agreement, decoded), "Tag is not decoded properly: " + decoded);
+                }),
+
+                new Test("ProgressUpdateStripsFormatVersion", player -> {
+                    RandomSource random = RandomSource.create(11);
+                    for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+                        DeliveryAgreement agreement = randomAgreement(random);
+                        ItemStack stack = new ItemStack(Items.PAPER);
+                        agreement.toItemStack(stack);
+                        CompoundTag written = stack.getOrCreateTag().copy();
+                        stack.getOrCreateTag().putInt(DeliveryAgreementSerializer.FORMAT_VERSION_KEY, DeliveryAgreementSerializer.FORMAT_VERSION);
+
+                        agreement.updateItemStack(stack);
+
+                        assertThat(written.equals(stack.getTag()), String.format("Updated tag does not match written one.\nWritten: %s\nUpdated: %s", written, stack.getTag()));
+                    }
+                })
+        );
+    }
+
+    private static DeliveryAgreement randomAgreement(RandomSource random) {
+        List<RequestedItem> requested = new ArrayList<>();
+        int requestedCount = random.nextInt(DeliveryAgreement.MAX_REQUESTED_STACKS + 1);
+        for (int i = 0; i < requestedCount; i++) {
+            Either<TagKey<Item>, Item> tagOrItem = random.nextBoolean()
+                    ? Either.left(TAGS[random.nextInt(TAGS.length)])
+                    : Either.right(ITEMS[random.nextInt(ITEMS.length)]);
+            CompoundTag tag = random.nextInt(3) == 0 ? randomTag(random) : null;
+            CompoundTagCompareBehavior behavior = CompoundTagCompareBehavior.values()[random.nextInt(CompoundTagCompareBehavior.values().length)];
+            requested.add(new RequestedItem(tagOrItem, random.nextInt(3) == 0 ? 1 : 1 + random.nextInt(64), tag, behavior));
+        }
+
+        List<ItemStack> payment = new ArrayList<>();
+        int paymentCount = random.nextInt(DeliveryAgreement.MAX_PAYMENT_STACKS + 1);
+        for (int i = 0; i < paymentCount; i++) {
+            ItemStack stack = new ItemStack(ITEMS[random.nextInt(ITEMS.length)], 1 + random.nextInt(64));
+            if (random.nextInt(3) == 0)
+                stack.setTag(randomTag(random));
+            payment.add(stack);
+        }
+
+        int ordered = random.nextBoolean() ? 0 : random.nextInt(100);
+        return new DeliveryAgreement(
+                random.nextBoolean() ? "" : "agreement_" + random.nextInt(1000),
+                randomComponent(random),
+                randomComponent(random),
+                randomComponent(random),
+                randomComponent(random),
+                random.nextBoolean() ? "default" : "seal_" + random.nextInt(10),
+                requested,
+                payment,
+                ordered,
+                ordered > 0 ? random.nextInt(ordered) : 0,
+                random.nextBoolean() ? 0 : random.nextInt(200),
+                random.nextBoolean() ? 0 : random.nextInt(20 * 60),
+                random.nextBoolean() ? -1L : random.nextLong(),
+                random.nextInt(5) == 0,
+                random.nextInt(5) == 0);
+    }
+
+    private static Component randomComponent(RandomSource random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> Component.empty();
+            case 1 -> Component.literal("Text " + random.nextInt(100));
+            case 2 -> Component.translatable("gui.wares.agreement." + random.nextInt(10));
+            default -> Component.literal("Styled").withStyle(ChatFormatting.values()[random.nextInt(ChatFormatting.values().length)])
+                    .append(Component.literal(" sibling"));
+        };
+    }
+
+    private static CompoundTag randomTag(RandomSource random) {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("Damage", random.nextInt(100));
+        if (random.nextBoolean())
+            tag.putString("Name", "Name" + random.nextInt(10));
+        return tag;
+    }
+
+    private static boolean areSame(DeliveryAgreement expected, DeliveryAgreement actual) {
+        if (!expected.equals(actual) || !expected.getRequested().equals(actual.getRequested())
+                || expected.getPayment().size() != actual.getPayment().size())
+            return false;
+
+        for (int i = 0; i < expected.getRequested().size(); i++) {
+            if (expected.getRequested().get(i).getTagCompareBehavior() != actual.getRequested().get(i).getTagCompareBehavior())
+                return false;
+        }
+
+        for (int i = 0; i < expected.getPayment().size(); i++) {
+            if (!ItemStack.matches(expected.getPayment().get(i), actual.getPayment().get(i)))
+                return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.mortuusars.wares.test.world;
+
+import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.block.entity.DeliveryTableBlockEntity;
+import io.github.mortuusars.wares.data.agreement.DeliveryAgreement;
+import io.github.mortuusars.wares.data.agreement.component.RequestedItem;
+import io.github.mortuusars.wares.test.framework.ITestClass;
+import io.github.mortuusars.wares.test.framework.Test;
+import io.github.mortuusars.wares.world.SharedAgreementCounters;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class SharedAgreementCountersTests implements ITestClass {
+    private static final BlockPos OWNER = new BlockPos(0, 64, 0);
+    private static final BlockPos FIRST_LINKED = OWNER.east();
+    private static final BlockPos SECOND_LINKED = OWNER.east(2);
+
+    @Override
+    public List<Test> collect() {
+        return List.of(
+                new Test("LinkedTablesCountDeliveriesTogether", player -> {
+                    SharedAgreementCounters counters = new SharedAgreementCounters();
+                    UUID key = counters.create(3);
+                    counters.addLinkedTable(key, FIRST_LINKED);
+                    counters.addLinkedTable(key, SECOND_LINKED);
+
+                    counters.addDelivered(key, 2);
+                    int delivered = counters.addDelivered(key, 4);
+
+                    assertThat(delivered == 9 && counters.getDelivered(key) == 9, "Delivered count is not shared: " + delivered);
+                    assertThat(counters.getLinkedTables(key).equals(Set.of(FIRST_LINKED, SECOND_LINKED)),
+                            "Linked tables are not tracked: " + counters.getLinkedTables(key));
+                }),
+
+                new Test("UnlinkedTableIsNotWokenUpOnRelease", player -> {
+                    SharedAgreementCounters counters = new SharedAgreementCounters();
+                    UUID key = counters.create(0);
+                    counters.addLinkedTable(key, FIRST_LINKED);
+                    counters.addLinkedTable(key, SECOND_LINKED);
+
+                    counters.removeLinkedTable(key, FIRST_LINKED);
+                    assertThat(counters.contains(key), "Counter was removed with unlinked table.");
+
+                    Set<BlockPos> released = counters.remove(key);
+                    assertThat(released.equals(Set.of(SECOND_LINKED)), "Wrong tables are woken up on release: " + released);
+                    assertThat(!counters.contains(key) && counters.addDelivered(key, 1) == -1, "Released counter still counts deliveries.");
+                }),
+
+                new Test("CounterSurvivesSaveAndLoad", player -> {
+                    SharedAgreementCounters counters = new SharedAgreementCounters();
+                    UUID key = counters.create(5);
+                    counters.addLinkedTable(key, FIRST_LINKED);
+                    counters.addDelivered(key, 2);
+
+                    SharedAgreementCounters loaded = SharedAgreementCounters.load(counters.save(new CompoundTag()));
+
+                    assertThat(loaded.getDelivered(key) == 7, "Delivered count is not loaded: " + loaded.getDelivered(key));
+                    assertThat(loaded.getLinkedTables(key).equals(Set.of(FIRST_LINKED)), "Linked tables are not loaded.");
+                }),
+
+                new Test("LinkedTableKeepsAgreementWhenOwnerIsUnloaded", player -> {
+                    ItemStack agreementStack = new ItemStack(Wares.Items.DELIVERY_AGREEMENT.get());
+                    DeliveryAgreement.builder()
+                            .addRequestedItem(new RequestedItem(Items.EMERALD, 2))
+                            .addPaymentItem(new ItemStack(Items.DIAMOND))
+                            .ordered(100)
+                            .build()
+                            .toItemStack(agreementStack);
+
+                    // Only link is saved - owner table does not need to be loaded:
+                    CompoundTag tag = new CompoundTag();
+                    tag.putUUID("SharedAgreement", UUID.randomUUID());
+                    tag.putLong("LinkedTable", OWNER.asLong());
+                    tag.put("LinkedAgreement", agreementStack.save(new CompoundTag()));
+                    tag.putInt("Progress", 40);
+
+                    DeliveryTableBlockEntity table = new DeliveryTableBlockEntity(FIRST_LINKED, Wares.Blocks.DELIVERY_TABLE.get().defaultBlockState());
+                    table.load(tag);
+
+                    assertThat(table.isLinked(), "Link was not loaded.");
+                    assertThat(table.getAgreement().getOrdered() == 100, "Agreement of the linked table was not loaded: " + table.getAgreement());
+                    assertThat(table.getProgress() == 40, "Progress was not loaded: " + table.getProgress());
+
+                    CompoundTag saved = table.saveWithoutMetadata();
+                    assertThat(saved.contains("LinkedTable") && saved.contains("LinkedAgreement") && saved.hasUUID("SharedAgreement"),
+                            "Link was not saved: " + saved);
+                })
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.mortuusars.wares.util;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of objects decoded from item stack tags. Intended for client-side tooltips, which are built every frame.
+ * <br><br>
+ * Entries are keyed by tag identity. Hash of the tag is stored alongside and compared on lookup -
+ * if the tag was mutated since it was decoded, it is decoded again.
+ * Cached objects are shared - they should only be read, not modified.
+ */
+public class DecodedTagCache<T> {
+    private final Function<ItemStack, Optional<T>> decoder;
+    private final Map<IdentityKey, Entry<T>> entries;
+
+    public DecodedTagCache(int maxSize, Function<ItemStack, Optional<T>> decoder) {
+        this.decoder = decoder;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IdentityKey, Entry<T>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized Optional<T> get(ItemStack stack) {
+        CompoundTag tag = stack.getTag();
+        if (tag == null)
+            return decoder.apply(stack);
+
+        int hash = tag.hashCode();
+        IdentityKey key = new IdentityKey(tag);
+        Entry<T> entry = entries.get(key);
+        if (entry != null && entry.hash() == hash)
+            return entry.value();
+
+        Optional<T> value = decoder.apply(stack);
+        entries.put(key, new Entry<>(hash, value));
+        return value;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private record Entry<T>(int hash, Optional<T> value) { }
+
+    private record IdentityKey(CompoundTag tag) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey other && other.tag == tag;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tag);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.mortuusars.wares.util;
+
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemStackUtils {
+    /**
+     * Merges stacks of the same item and tags together. Input stacks are not modified.
+     */
+    public static List<ItemStack> merge(List<ItemStack> stacks) {
+        return compressAndLimit(stacks, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Merges stacks of the same item and tags together, and keeps only the first 'stackLimit' resulting stacks.
+     * Works the same as adding stacks one by one to a SimpleContainer of 'stackLimit' size and taking all items out of it
+     * (including that a stack that gets to an empty slot is not split), but without creating a container.
+     * Input stacks are not modified.
+     */
+    public static List<ItemStack> compressAndLimit(List<ItemStack> stacks, int stackLimit) {
+        List<ItemStack> result = new ArrayList<>(Math.min(stacks.size(), stackLimit));
+
+        for (ItemStack stack : stacks) {
+            if (stack.isEmpty())
+                continue;
+
+            int remaining = stack.getCount();
+            for (ItemStack existing : result) {
+                if (ItemStack.isSameItemSameTags(existing, stack)) {
+                    int limit = Math.min(64, existing.getMaxStackSize());
+                    int moved = Math.min(remaining, limit - existing.getCount());
+                    if (moved > 0) {
+                        existing.grow(moved);
+                        remaining -= moved;
+                    }
+
+                    if (remaining <= 0)
+                        break;
+                }
+            }
+
+            if (remaining > 0 && result.size() < stackLimit)
+                result.add(stack.copyWithCount(remaining));
+        }
+
+        return result;
+    }
+}
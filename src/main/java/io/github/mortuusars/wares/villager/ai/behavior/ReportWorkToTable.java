@@ -0,0 +1,74 @@
+package io.github.mortuusars.wares.villager.ai.behavior;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.mortuusars.wares.block.entity.DeliveryTableBlockEntity;
+import io.github.mortuusars.wares.config.Config;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.sounds.SoundEvents;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.world.entity.ai.behavior.Behavior;
+import net.minecraft.world.entity.ai.memory.MemoryModuleType;
+import net.minecraft.world.entity.ai.memory.MemoryStatus;
+import net.minecraft.world.entity.npc.Villager;
+import net.minecraft.world.entity.npc.VillagerData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Periodically reports packager's state (level, last time it worked, position) to the Delivery Table that is its job site.
+ * Table relies on these reports instead of looking for its packager.
+ * Xp that packager has earned from deliveries is taken from the table and given to the packager on each report.
+ */
+public class ReportWorkToTable extends Behavior<Villager> {
+    public static final int REPORT_INTERVAL = 20;
+
+    private long nextReportTime;
+
+    public ReportWorkToTable() {
+        super(ImmutableMap.of(MemoryModuleType.JOB_SITE, MemoryStatus.VALUE_PRESENT), 1);
+    }
+
+    @Override
+    protected boolean checkExtraStartConditions(ServerLevel level, @NotNull Villager villager) {
+        return level.getGameTime() >= nextReportTime;
+    }
+
+    @Override
+    protected void start(@NotNull ServerLevel level, @NotNull Villager villager, long gameTime) {
+        nextReportTime = gameTime + REPORT_INTERVAL;
+
+        GlobalPos jobSite = villager.getBrain().getMemory(MemoryModuleType.JOB_SITE).orElse(null);
+        if (jobSite == null || jobSite.dimension() != level.dimension())
+            return;
+
+        BlockPos pos = jobSite.pos();
+        if (level.isLoaded(pos) && level.getBlockEntity(pos) instanceof DeliveryTableBlockEntity deliveryTableBlockEntity) {
+            long lastWorkedAt = villager.getBrain().getMemory(MemoryModuleType.LAST_WORKED_AT_POI).orElse(-1L);
+            deliveryTableBlockEntity.reportPackagerWork(villager, villager.getVillagerData().getLevel(), lastWorkedAt, gameTime);
+            addXp(level, villager, deliveryTableBlockEntity.takePendingPackagerXp(villager));
+        }
+    }
+
+    /**
+     * Gives all xp earned since the last report at once. Level up is checked once per report -
+     * if xp is enough for more than one level, next level is gained after next report.
+     */
+    private void addXp(ServerLevel level, Villager villager, int xp) {
+        if (xp <= 0)
+            return;
+
+        int villagerXp = villager.getVillagerXp() + xp;
+        villager.setVillagerXp(villagerXp);
+
+        if (villager.increaseProfessionLevelOnUpdate)
+            return;
+
+        int villagerLevel = villager.getVillagerData().getLevel();
+        if (VillagerData.canLevelUp(villagerLevel) && villagerXp >= Config.settings().maxXpPerLevel(villagerLevel)) {
+            level.playSound(null, villager, SoundEvents.PLAYER_LEVELUP, SoundSource.NEUTRAL, 0.75f, 1);
+            villager.increaseProfessionLevelOnUpdate = true;
+            villager.updateMerchantTimer = 30;
+        }
+    }
+}
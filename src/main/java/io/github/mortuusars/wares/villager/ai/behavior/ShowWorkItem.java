@@ -15,7 +15,9 @@ import net.minecraft.world.entity.ai.memory.MemoryStatus;
 import net.minecraft.world.entity.npc.Villager;
 import net.minecraft.world.item.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.WeakReference;
 import java.util.Optional;
 
 public class ShowWorkItem extends Behavior<Villager> {
@@ -26,6 +28,12 @@ public class ShowWorkItem extends Behavior<Villager> {
     private final ItemStack item;
     private long showCooldownTimestamp;
 
+    /**
+     * Table at the job site, cached to not look it up on every check. Validated against current job site on access.
+     */
+    private WeakReference<DeliveryTableBlockEntity> cachedTable = new WeakReference<>(null);
+    private @Nullable GlobalPos cachedTableJobSite;
+
     public ShowWorkItem(ItemStack item, int minDuration, int maxDuration) {
         super(ImmutableMap.of(MemoryModuleType.JOB_SITE, MemoryStatus.VALUE_PRESENT,
                 MemoryModuleType.LAST_WORKED_AT_POI, MemoryStatus.VALUE_PRESENT), minDuration, maxDuration);
@@ -39,10 +47,8 @@ public class ShowWorkItem extends Behavior<Villager> {
 
         Optional<GlobalPos> jobSiteMemory = villager.getBrain().getMemory(MemoryModuleType.JOB_SITE);
         if (jobSiteMemory.isPresent()) {
-            BlockPos jobSitePos = jobSiteMemory.get().pos();
-            if (level.isLoaded(jobSitePos)
-                    && level.getBlockEntity(jobSitePos) instanceof DeliveryTableBlockEntity deliveryTableBlockEntity
-                    && !deliveryTableBlockEntity.getAgreementItem().is(Wares.Items.DELIVERY_AGREEMENT.get()))
+            @Nullable DeliveryTableBlockEntity deliveryTableBlockEntity = getJobSiteTable(level, jobSiteMemory.get());
+            if (deliveryTableBlockEntity != null && !deliveryTableBlockEntity.hasActiveAgreement())
                 return false;
         }
 
@@ -51,6 +57,22 @@ public class ShowWorkItem extends Behavior<Villager> {
         return lastWorkedMemory.isPresent() && level.getGameTime() - lastWorkedMemory.get() <= LAST_WORKED_TIME_LIMIT;
     }
 
+    private @Nullable DeliveryTableBlockEntity getJobSiteTable(ServerLevel level, GlobalPos jobSite) {
+        @Nullable DeliveryTableBlockEntity table = cachedTable.get();
+        if (table != null && !table.isRemoved() && table.getLevel() == level && jobSite.equals(cachedTableJobSite))
+            return table;
+
+        table = null;
+        BlockPos jobSitePos = jobSite.pos();
+        if (jobSite.dimension() == level.dimension() && level.isLoaded(jobSitePos)
+                && level.getBlockEntity(jobSitePos) instanceof DeliveryTableBlockEntity deliveryTableBlockEntity)
+            table = deliveryTableBlockEntity;
+
+        cachedTable = new WeakReference<>(table);
+        cachedTableJobSite = jobSite;
+        return table;
+    }
+
     @Override
     protected boolean canStillUse(@NotNull ServerLevel level, @NotNull Villager villager, long pGameTime) {
         return checkExtraStartConditions(level, villager) ;
@@ -59,6 +81,7 @@ public class ShowWorkItem extends Behavior<Villager> {
     @Override
     protected void start(@NotNull ServerLevel level, @NotNull Villager villager, long gameTime) {
         super.start(level, villager, gameTime);
+
         villager.setItemSlot(EquipmentSlot.MAINHAND, item);
         villager.setDropChance(EquipmentSlot.MAINHAND, 0f);
         level.playSound(null, villager, Wares.SoundEvents.VILLAGER_WORK_PACKAGER.get(), SoundSource.NEUTRAL,
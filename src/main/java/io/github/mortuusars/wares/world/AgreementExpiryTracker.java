@@ -0,0 +1,87 @@
+package io.github.mortuusars.wares.world;
+
+import io.github.mortuusars.wares.Wares;
+import io.github.mortuusars.wares.item.DeliveryAgreementItem;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Per-level queue of Delivery Agreement expiry times of agreements in player inventories.
+ * When the earliest deadline of a player passes - expired agreements in their inventory are converted
+ * and the next deadline is queued. Agreements are tracked when realized and when player logs in.
+ * <br><br>
+ * Agreements that got to the player some other way are handled by {@link DeliveryAgreementItem#inventoryTick}, which checks them periodically.
+ */
+public class AgreementExpiryTracker {
+    private static final Map<ServerLevel, AgreementExpiryTracker> TRACKERS = new HashMap<>();
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::expireTime));
+
+    public static AgreementExpiryTracker get(ServerLevel level) {
+        return TRACKERS.computeIfAbsent(level, l -> new AgreementExpiryTracker());
+    }
+
+    public static void remove(ServerLevel level) {
+        TRACKERS.remove(level);
+    }
+
+    /**
+     * Should be called at the start of a level tick.
+     */
+    public static void onLevelTickStart(ServerLevel level) {
+        AgreementExpiryTracker tracker = TRACKERS.get(level);
+        if (tracker != null && !tracker.queue.isEmpty())
+            // Same as in DeliveryScheduler - game time is incremented later in this tick.
+            tracker.process(level, level.getGameTime() + 1);
+    }
+
+    /**
+     * Queues the earliest expiry time of the agreements in player's inventory.
+     */
+    public static void trackInventory(ServerPlayer player) {
+        long earliest = Long.MAX_VALUE;
+        Inventory inventory = player.getInventory();
+        for (int slot = 0; slot < inventory.getContainerSize(); slot++) {
+            ItemStack stack = inventory.getItem(slot);
+            if (stack.is(Wares.Items.DELIVERY_AGREEMENT.get())) {
+                long expireTime = DeliveryAgreementItem.getExpireTime(stack);
+                if (expireTime >= 0)
+                    earliest = Math.min(earliest, expireTime);
+            }
+        }
+
+        if (earliest != Long.MAX_VALUE)
+            get(player.serverLevel()).track(player, earliest);
+    }
+
+    public void track(ServerPlayer player, long expireTime) {
+        if (expireTime >= 0)
+            queue.add(new Entry(expireTime, player.getUUID()));
+    }
+
+    private void process(ServerLevel level, long gameTime) {
+        List<ServerPlayer> players = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expireTime() <= gameTime) {
+            ServerPlayer player = level.getServer().getPlayerList().getPlayer(queue.poll().playerId());
+            if (player != null && !players.contains(player))
+                players.add(player);
+        }
+
+        for (ServerPlayer player : players) {
+            DeliveryAgreementItem.convertExpiredAgreements(player, gameTime);
+            trackInventory(player);
+        }
+    }
+
+    private record Entry(long expireTime, UUID playerId) { }
+}
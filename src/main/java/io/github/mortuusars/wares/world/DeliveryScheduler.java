@@ -0,0 +1,81 @@
+package io.github.mortuusars.wares.world;
+
+import io.github.mortuusars.wares.block.entity.DeliveryTableBlockEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-level timing wheel that wakes up sleeping Delivery Tables at the scheduled game time.
+ * Tables are referenced by position. If a table is not loaded when it's due - entry is discarded
+ * (newly loaded table is awake anyway and will reschedule itself).
+ */
+public class DeliveryScheduler {
+    private static final int WHEEL_SIZE = 256; // Should be a power of two.
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final Map<ServerLevel, DeliveryScheduler> SCHEDULERS = new HashMap<>();
+
+    private final List<List<Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private long lastProcessedTime = Long.MIN_VALUE;
+
+    private DeliveryScheduler() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    public static DeliveryScheduler get(ServerLevel level) {
+        return SCHEDULERS.computeIfAbsent(level, l -> new DeliveryScheduler());
+    }
+
+    public static void remove(ServerLevel level) {
+        SCHEDULERS.remove(level);
+    }
+
+    /**
+     * Should be called at the start of a level tick.
+     */
+    public static void onLevelTickStart(ServerLevel level) {
+        DeliveryScheduler scheduler = SCHEDULERS.get(level);
+        if (scheduler != null)
+            // Game time is incremented at the beginning of a level tick, before block entities are ticked.
+            // Processing upcoming tick here allows tables to act exactly on their due tick.
+            scheduler.process(level, level.getGameTime() + 1);
+    }
+
+    public void schedule(BlockPos pos, long gameTime) {
+        if (gameTime <= lastProcessedTime)
+            gameTime = lastProcessedTime + 1;
+
+        wheel.get((int) (gameTime & WHEEL_MASK)).add(new Entry(pos.immutable(), gameTime));
+    }
+
+    private void process(ServerLevel level, long gameTime) {
+        lastProcessedTime = gameTime;
+
+        List<Entry> bucket = wheel.get((int) (gameTime & WHEEL_MASK));
+        int i = 0;
+        while (i < bucket.size()) {
+            Entry entry = bucket.get(i);
+            if (entry.gameTime() > gameTime) { // Due in one of the next wheel revolutions
+                i++;
+                continue;
+            }
+
+            // Swap-remove: order of entries in a bucket does not matter.
+            Entry last = bucket.remove(bucket.size() - 1);
+            if (i < bucket.size())
+                bucket.set(i, last);
+
+            if (level.isLoaded(entry.pos()) && level.getBlockEntity(entry.pos()) instanceof DeliveryTableBlockEntity table)
+                table.onScheduledWakeUp(gameTime);
+        }
+    }
+
+    private record Entry(BlockPos pos, long gameTime) { }
+}
@@ -0,0 +1,83 @@
+package io.github.mortuusars.wares.world;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-level queue of item entities to spawn. At most {@link #SPAWNS_PER_TICK} entities are spawned in one tick -
+ * the rest are spawned in the next ticks. Used when unpacking packages, so that breaking a lot of packages at once
+ * does not spawn hundreds of item entities in one tick.
+ * <br><br>
+ * Queued items are spawned when server is stopping. If a level is unloaded otherwise - queued items are lost.
+ */
+public class ItemSpawnQueue {
+    public static final int SPAWNS_PER_TICK = 32;
+
+    private static final Map<ServerLevel, ItemSpawnQueue> QUEUES = new HashMap<>();
+
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private int spawnedThisTick = 0;
+
+    public static ItemSpawnQueue get(ServerLevel level) {
+        return QUEUES.computeIfAbsent(level, l -> new ItemSpawnQueue());
+    }
+
+    public static void remove(ServerLevel level) {
+        QUEUES.remove(level);
+    }
+
+    /**
+     * Should be called at the start of a level tick.
+     */
+    public static void onLevelTickStart(ServerLevel level) {
+        ItemSpawnQueue spawnQueue = QUEUES.get(level);
+        if (spawnQueue != null) {
+            spawnQueue.spawnedThisTick = 0;
+            while (!spawnQueue.queue.isEmpty() && spawnQueue.spawnedThisTick < SPAWNS_PER_TICK) {
+                Entry entry = spawnQueue.queue.poll();
+                spawnQueue.spawnEntity(level, entry.position(), entry.stack());
+            }
+        }
+    }
+
+    /**
+     * Spawns all queued items without a limit.
+     */
+    public static void spawnAllQueued() {
+        for (Map.Entry<ServerLevel, ItemSpawnQueue> levelQueue : QUEUES.entrySet()) {
+            ItemSpawnQueue spawnQueue = levelQueue.getValue();
+            while (!spawnQueue.queue.isEmpty()) {
+                Entry entry = spawnQueue.queue.poll();
+                spawnQueue.spawnEntity(levelQueue.getKey(), entry.position(), entry.stack());
+            }
+        }
+    }
+
+    /**
+     * Spawns item entity with the whole stack right away if limit for this tick is not reached. Queues it otherwise.
+     */
+    public void spawn(ServerLevel level, Vec3 position, ItemStack stack) {
+        if (stack.isEmpty())
+            return;
+
+        if (queue.isEmpty() && spawnedThisTick < SPAWNS_PER_TICK)
+            spawnEntity(level, position, stack);
+        else
+            queue.add(new Entry(position, stack));
+    }
+
+    private void spawnEntity(ServerLevel level, Vec3 position, ItemStack stack) {
+        ItemEntity itemEntity = new ItemEntity(level, position.x, position.y, position.z, stack);
+        itemEntity.setDefaultPickUpDelay();
+        level.addFreshEntity(itemEntity);
+        spawnedThisTick++;
+    }
+
+    private record Entry(Vec3 position, ItemStack stack) { }
+}
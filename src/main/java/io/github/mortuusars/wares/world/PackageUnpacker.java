@@ -0,0 +1,66 @@
+package io.github.mortuusars.wares.world;
+
+import io.github.mortuusars.wares.util.ItemStackUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Puts unpacked package items where they should go: identical stacks are merged first, then items are inserted
+ * into the inventory of the player that opened the package, or into containers adjacent to the package block.
+ * Items that did not fit are spawned through {@link ItemSpawnQueue}.
+ */
+public class PackageUnpacker {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    public static void unpackTo(ServerLevel level, Player player, List<ItemStack> items) {
+        Vec3 position = player.position();
+        for (ItemStack stack : ItemStackUtils.merge(items)) {
+            player.getInventory().add(stack);
+            ItemSpawnQueue.get(level).spawn(level, position, stack);
+        }
+    }
+
+    public static void unpackAt(ServerLevel level, BlockPos pos, List<ItemStack> items) {
+        Vec3 position = Vec3.atCenterOf(pos);
+        List<ItemStack> stacks = ItemStackUtils.merge(items);
+
+        for (Direction direction : DIRECTIONS) {
+            BlockPos neighbourPos = pos.relative(direction);
+            if (!level.isLoaded(neighbourPos))
+                continue;
+
+            BlockEntity blockEntity = level.getBlockEntity(neighbourPos);
+            if (blockEntity == null)
+                continue;
+
+            Optional<IItemHandler> handler = blockEntity.getCapability(ForgeCapabilities.ITEM_HANDLER, direction.getOpposite()).resolve();
+            if (handler.isEmpty())
+                continue;
+
+            boolean allInserted = true;
+            for (int i = 0; i < stacks.size(); i++) {
+                if (!stacks.get(i).isEmpty())
+                    stacks.set(i, ItemHandlerHelper.insertItemStacked(handler.get(), stacks.get(i), false));
+                allInserted &= stacks.get(i).isEmpty();
+            }
+
+            if (allInserted)
+                return;
+        }
+
+        for (ItemStack stack : stacks) {
+            ItemSpawnQueue.get(level).spawn(level, position, stack);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.mortuusars.wares.world;
+
+import io.github.mortuusars.wares.Wares;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Authoritative delivered count of agreements that are shared by adjacent Delivery Tables.
+ * Each linked table works on its own copy of the agreement and adds its deliveries here -
+ * deliveries are counted even when the table that owns the agreement stack is not loaded.
+ * <br><br>
+ * Entry is created by the owner table when first table links to it, and removed when owner's agreement changes or owner is removed.
+ * Positions of linked tables are kept to wake them up when entry is removed.
+ */
+public class SharedAgreementCounters extends SavedData {
+    private static final String DATA_NAME = Wares.ID + "_shared_agreements";
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    public static SharedAgreementCounters get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(SharedAgreementCounters::load, SharedAgreementCounters::new, DATA_NAME);
+    }
+
+    /**
+     * @return key of the new counter.
+     */
+    public UUID create(int delivered) {
+        UUID key = UUID.randomUUID();
+        entries.put(key, new Entry(Math.max(0, delivered), new HashSet<>()));
+        setDirty();
+        return key;
+    }
+
+    public boolean contains(UUID key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * @return delivered count or -1 if there is no counter with this key.
+     */
+    public int getDelivered(UUID key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.delivered : -1;
+    }
+
+    /**
+     * @return new delivered count or -1 if there is no counter with this key.
+     */
+    public int addDelivered(UUID key, int count) {
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return -1;
+
+        entry.delivered += count;
+        setDirty();
+        return entry.delivered;
+    }
+
+    public void addLinkedTable(UUID key, BlockPos pos) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.linkedTables.add(pos.immutable()))
+            setDirty();
+    }
+
+    public void removeLinkedTable(UUID key, BlockPos pos) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.linkedTables.remove(pos))
+            setDirty();
+    }
+
+    public Set<BlockPos> getLinkedTables(UUID key) {
+        Entry entry = entries.get(key);
+        return entry != null ? Set.copyOf(entry.linkedTables) : Set.of();
+    }
+
+    /**
+     * Removes the counter. Tables that are linked to it will unlink when they are ticked next time.
+     * @return positions of the tables that were linked.
+     */
+    public Set<BlockPos> remove(UUID key) {
+        Entry entry = entries.remove(key);
+        if (entry == null)
+            return Set.of();
+
+        setDirty();
+        return entry.linkedTables;
+    }
+
+    public static SharedAgreementCounters load(CompoundTag tag) {
+        SharedAgreementCounters counters = new SharedAgreementCounters();
+        ListTag entriesTag = tag.getList("Agreements", Tag.TAG_COMPOUND);
+        for (int i = 0; i < entriesTag.size(); i++) {
+            CompoundTag entryTag = entriesTag.getCompound(i);
+            Set<BlockPos> linkedTables = new HashSet<>();
+            for (Tag posTag : entryTag.getList("LinkedTables", Tag.TAG_LONG)) {
+                linkedTables.add(BlockPos.of(((LongTag) posTag).getAsLong()));
+            }
+            counters.entries.put(entryTag.getUUID("Key"), new Entry(entryTag.getInt("Delivered"), linkedTables));
+        }
+        return counters;
+    }
+
+    @Override
+    public @NotNull CompoundTag save(@NotNull CompoundTag tag) {
+        ListTag entriesTag = new ListTag();
+        for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+            CompoundTag entryTag = new CompoundTag();
+            entryTag.putUUID("Key", entry.getKey());
+            entryTag.putInt("Delivered", entry.getValue().delivered);
+            ListTag linkedTablesTag = new ListTag();
+            for (BlockPos pos : entry.getValue().linkedTables) {
+                linkedTablesTag.add(LongTag.valueOf(pos.asLong()));
+            }
+            entryTag.put("LinkedTables", linkedTablesTag);
+            entriesTag.add(entryTag);
+        }
+        tag.put("Agreements", entriesTag);
+        return tag;
+    }
+
+    private static class Entry {
+        private int delivered;
+        private final Set<BlockPos> linkedTables;
+
+        private Entry(int delivered, Set<BlockPos> linkedTables) {
+            this.delivered = delivered;
+            this.linkedTables = linkedTables;
+        }
+    }
+}